@@ -0,0 +1,121 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import com.snack.repositories.storage.CachedProductStorage;
+import com.snack.repositories.storage.HashProductStorage;
+import com.snack.repositories.storage.ProductStorage;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales drawn from a Zipf distribution (a few products sell most) against a backend that costs a few
+ * microseconds per lookup, with and without the read-through cache. The cache's hits and misses are reported
+ * as auxiliary counters next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CachedStorageBenchmark {
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int CACHE_SIZE = 1_000;
+    private static final double SKEW = 1.0;
+
+    @Param({"NONE", "LRU", "TINY_LFU"})
+    private String policy;
+
+    private ProductRepository repository;
+    private CachedProductStorage cache;
+    private double[] cumulative;
+
+    /**
+     * Backend whose lookups burn CPU like a read from a file or an embedded database would.
+     */
+    static final class SlowStorage extends HashProductStorage {
+        @Override
+        public Product get(int id) {
+            Blackhole.consumeCPU(2_000);
+            return super.get(id);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sales {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() {
+        ProductStorage backend = new SlowStorage();
+
+        for (int id = 0; id < CATALOG_SIZE; id++) {
+            backend.add(Catalogs.product(id));
+        }
+
+        if (!policy.equals("NONE")) {
+            cache = new CachedProductStorage(backend, CachedProductStorage.Policy.valueOf(policy), CACHE_SIZE);
+            backend = cache;
+        }
+
+        repository = new ProductRepository(backend);
+        cumulative = new double[CATALOG_SIZE];
+        double sum = 0;
+
+        for (int rank = 0; rank < CATALOG_SIZE; rank++) {
+            sum += 1 / Math.pow(rank + 1, SKEW);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < CATALOG_SIZE; rank++) {
+            cumulative[rank] /= sum;
+        }
+    }
+
+    /**
+     * Cache hits and misses during one iteration; both stay at zero without a cache. JMH sums counters over
+     * the iterations, so the hit rate is {@code hits / (hits + misses)} of the reported totals.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CacheCounters {
+        public long hits;
+        public long misses;
+        private CachedProductStorage.Stats start;
+
+        @Setup(Level.Iteration)
+        public void start(CachedStorageBenchmark benchmark) {
+            hits = 0;
+            misses = 0;
+            start = benchmark.cache == null ? null : benchmark.cache.stats();
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop(CachedStorageBenchmark benchmark) {
+            if (start != null) {
+                CachedProductStorage.Stats end = benchmark.cache.stats();
+                hits = end.hits() - start.hits();
+                misses = end.misses() - start.misses();
+            }
+        }
+    }
+
+    @Benchmark
+    public float sell(Sales sales, CacheCounters counters) {
+        int rank = Arrays.binarySearch(cumulative, sales.random.nextDouble());
+        int id = rank >= 0 ? rank : -rank - 1;
+        return repository.getById(Math.min(id, CATALOG_SIZE - 1)).sellProduct(1);
+    }
+}
@@ -0,0 +1,84 @@
+package com.snack.benchmarks;
+
+import com.snack.applications.ProductApplication;
+import com.snack.events.CatalogEventStream;
+import com.snack.services.ImageStorageConfig;
+import com.snack.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What publishing change events adds to {@code sellProduct}, with the stream turned off, with no reader and
+ * with a reader draining it at the same time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Group)
+public class CatalogEventStreamBenchmark {
+    private static final int CATALOG_SIZE = 10_000;
+
+    @Param({"false", "true"})
+    private boolean publish;
+
+    private Path imageRoot;
+    private ProductApplication application;
+    private CatalogEventStream.Cursor cursor;
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        imageRoot = Files.createTempDirectory("events-bench");
+        application = new ProductApplication(Catalogs.repository("HASH", CATALOG_SIZE),
+                new ProductService(new ImageStorageConfig(imageRoot)));
+        // with publishing off the reader polls a stream nobody writes to
+        cursor = application.getEventStream().cursor();
+        if (!publish) {
+            application.setEventStream(null);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Catalogs.deleteRecursively(imageRoot);
+    }
+
+    @Benchmark
+    @Group("writerOnly")
+    public float sell(Ids ids) {
+        return application.sellProduct(ids.random.nextInt(CATALOG_SIZE), 1);
+    }
+
+    @Benchmark
+    @Group("writerAndReader")
+    @GroupThreads(1)
+    public float sellWhileRead(Ids ids) {
+        return application.sellProduct(ids.random.nextInt(CATALOG_SIZE), 1);
+    }
+
+    @Benchmark
+    @Group("writerAndReader")
+    @GroupThreads(1)
+    public int read(Blackhole blackhole) {
+        return cursor.poll(blackhole::consume, 256);
+    }
+}
@@ -0,0 +1,43 @@
+package com.snack.benchmarks;
+
+import com.snack.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full collection time with a large live catalog. A collection has to trace every object the storage keeps
+ * on the heap, so this tracks how much the catalog adds to old-generation pauses.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-XX:+UseG1GC", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CatalogGcBenchmark {
+    @Param({"1000000"})
+    private int size;
+
+    @Param({"HASH", "INT_HASH", "OFF_HEAP"})
+    private String storage;
+
+    private ProductRepository repository;
+
+    @Setup
+    public void setup() {
+        repository = Catalogs.repository(storage, size);
+    }
+
+    @Benchmark
+    public ProductRepository fullGc() {
+        System.gc();
+        return repository;
+    }
+}
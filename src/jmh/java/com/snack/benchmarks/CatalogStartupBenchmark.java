@@ -0,0 +1,72 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.storage.ConcurrentProductStorage;
+import com.snack.repositories.storage.DurableProductStorage;
+import com.snack.repositories.storage.MappedCatalog;
+import com.snack.repositories.storage.MappedProductStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from a catalog on disk to the first lookup: mapping the binary catalog against loading the durable
+ * storage's snapshot into memory.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CatalogStartupBenchmark {
+    @Param({"10000", "1000000"})
+    private int size;
+
+    private Path directory;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("startup-bench");
+        List<Product> products = new ArrayList<Product>(size);
+
+        try (DurableProductStorage storage = new DurableProductStorage(directory.resolve("durable"))) {
+            for (int id = 0; id < size; id++) {
+                Product product = Catalogs.product(id);
+                products.add(product);
+                storage.add(product);
+            }
+            storage.checkpoint();
+        }
+
+        MappedCatalog.write(directory.resolve("catalog.map"), products);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Catalogs.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Product mapped() throws IOException {
+        return MappedProductStorage.open(directory.resolve("catalog.map")).get(size / 2);
+    }
+
+    @Benchmark
+    public Product snapshot() throws IOException {
+        try (DurableProductStorage storage = new DurableProductStorage(directory.resolve("durable"),
+                new ConcurrentProductStorage(), DurableProductStorage.Durability.ASYNC, DurableProductStorage.DEFAULT_CHECKPOINT_BYTES)) {
+            return storage.get(size / 2);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.snack.benchmarks;
+
+import com.snack.applications.CatalogTransaction;
+import com.snack.applications.ProductApplication;
+import com.snack.entities.Product;
+import com.snack.repositories.CatalogRepository;
+import com.snack.repositories.RepositoryEngine;
+import com.snack.services.ImageStorageConfig;
+import com.snack.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appending products with images on the persistent engine, one product at a time versus one transaction per
+ * batch. Each product costs a log sync on its own, while a transaction syncs the log once and each touched
+ * image directory once.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class CatalogTransactionBenchmark {
+    @Param({"100"})
+    private int batchSize;
+
+    private Path directory;
+    private Path image;
+    private CatalogRepository repository;
+    private ProductApplication application;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("transaction-bench");
+        image = Files.write(directory.resolve("source.jpg"), new byte[16 * 1024]);
+        repository = RepositoryEngine.PERSISTENT.open(directory.resolve("catalog"));
+        application = new ProductApplication(repository,
+                new ProductService(new ImageStorageConfig(directory.resolve("images"))));
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws IOException {
+        repository.close();
+        Catalogs.deleteRecursively(directory);
+    }
+
+    private Product product(int id) {
+        Product product = Catalogs.product(id);
+        product.setImage(image.toString());
+        return product;
+    }
+
+    @Benchmark
+    public CatalogRepository onePerProduct() {
+        for (int id = 0; id < batchSize; id++) {
+            application.append(product(id));
+        }
+        return repository;
+    }
+
+    @Benchmark
+    public CatalogRepository oneTransaction() throws IOException {
+        try (CatalogTransaction transaction = application.begin()) {
+            for (int id = 0; id < batchSize; id++) {
+                transaction.append(product(id));
+            }
+            transaction.commit();
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,66 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import com.snack.repositories.storage.ConcurrentProductStorage;
+import com.snack.repositories.storage.HashProductStorage;
+import com.snack.repositories.storage.IntHashProductStorage;
+import com.snack.repositories.storage.OffHeapProductStorage;
+import com.snack.repositories.storage.ProductStorage;
+import com.snack.repositories.storage.SnapshotProductStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+final class Catalogs {
+    private Catalogs() {
+    }
+
+    static ProductStorage storage(String name) {
+        switch (name) {
+            case "HASH":
+                return new HashProductStorage();
+            case "INT_HASH":
+                return new IntHashProductStorage();
+            case "CONCURRENT":
+                return new ConcurrentProductStorage();
+            case "SNAPSHOT":
+                return new SnapshotProductStorage();
+            case "OFF_HEAP":
+                return new OffHeapProductStorage();
+            default:
+                throw new IllegalArgumentException("Unknown storage " + name);
+        }
+    }
+
+    static Product product(int id) {
+        return new Product(id, "Product " + id, 1f + id % 100, "");
+    }
+
+    static ProductRepository repository(String storage, int catalogSize) {
+        return repository(storage, catalogSize, false);
+    }
+
+    static ProductRepository repository(String storage, int catalogSize, boolean searchIndex) {
+        ProductRepository repository = new ProductRepository(storage(storage), searchIndex);
+        List<Product> products = new ArrayList<Product>(catalogSize);
+
+        for (int id = 0; id < catalogSize; id++) {
+            products.add(product(id));
+        }
+
+        repository.appendAll(products);
+        return repository;
+    }
+
+    static void deleteRecursively(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout threads reading while catalog edits run, for the thread-safe storages only.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Group)
+public class ConcurrentRepositoryBenchmark {
+    @Param({"1000", "100000"})
+    private int catalogSize;
+
+    @Param({"CONCURRENT", "SNAPSHOT"})
+    private String storage;
+
+    private ProductRepository repository;
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() {
+        repository = Catalogs.repository(storage, catalogSize);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(7)
+    public Product reader(Ids ids) {
+        return repository.getById(ids.random.nextInt(catalogSize));
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public void writer(Ids ids) {
+        int id = ids.random.nextInt(catalogSize);
+        repository.update(id, Catalogs.product(id));
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(4)
+    public Product balancedReader(Ids ids) {
+        return repository.getById(ids.random.nextInt(catalogSize));
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(4)
+    public void balancedWriter(Ids ids) {
+        int id = ids.random.nextInt(catalogSize);
+        repository.update(id, Catalogs.product(id));
+    }
+}
@@ -0,0 +1,72 @@
+package com.snack.benchmarks;
+
+import com.snack.repositories.storage.ConcurrentProductStorage;
+import com.snack.repositories.storage.DurableProductStorage;
+import com.snack.repositories.storage.ProductStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Update throughput of the write-ahead-logged storage against the in-memory one it wraps. Run with several
+ * threads ({@code -Djmh.args="-t 8 DurableStorageBenchmark"}) to see group commit at work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class DurableStorageBenchmark {
+    private static final int CATALOG_SIZE = 100_000;
+
+    @Param({"MEMORY", "SYNC", "ASYNC"})
+    private String mode;
+
+    private Path directory;
+    private ProductStorage storage;
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("wal-bench");
+
+        if (mode.equals("MEMORY")) {
+            storage = new ConcurrentProductStorage();
+        } else {
+            storage = new DurableProductStorage(directory, new ConcurrentProductStorage(),
+                    DurableProductStorage.Durability.valueOf(mode), DurableProductStorage.DEFAULT_CHECKPOINT_BYTES);
+        }
+
+        for (int id = 0; id < CATALOG_SIZE; id++) {
+            storage.add(Catalogs.product(id));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        if (storage instanceof DurableProductStorage) {
+            ((DurableProductStorage) storage).close();
+        }
+        Catalogs.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public boolean update(Ids ids) {
+        int id = ids.random.nextInt(CATALOG_SIZE);
+        return storage.update(id, Catalogs.product(id));
+    }
+}
@@ -0,0 +1,52 @@
+package com.snack.benchmarks;
+
+import com.snack.inventory.Inventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sixteen terminals selling one hot SKU: the inventory's compare-and-exchange counter against a
+ * check-and-decrement behind one lock. Stock is large enough never to run out.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(16)
+public class InventoryContentionBenchmark {
+    private static final int HOT_SKU = 42;
+    private static final long STOCK = Long.MAX_VALUE / 2;
+
+    private final Inventory inventory = new Inventory();
+    private final Object lock = new Object();
+    private long lockedStock;
+
+    @Setup
+    public void setup() {
+        inventory.setStock(HOT_SKU, STOCK);
+        lockedStock = STOCK;
+    }
+
+    @Benchmark
+    public boolean compareAndExchange() {
+        return inventory.tryTake(HOT_SKU, 1);
+    }
+
+    @Benchmark
+    public boolean singleLock() {
+        synchronized (lock) {
+            if (lockedStock < 1) {
+                return false;
+            }
+            lockedStock--;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.snack.benchmarks;
+
+import com.snack.applications.ProductApplication;
+import com.snack.facade.ProductFacade;
+import com.snack.services.ImageStorageConfig;
+import com.snack.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ProductFacadeBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"HASH", "INT_HASH", "CONCURRENT"})
+    private String storage;
+
+    private Path imageRoot;
+    private ProductFacade facade;
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        imageRoot = Files.createTempDirectory("facade-bench");
+        ProductService service = new ProductService(new ImageStorageConfig(imageRoot));
+        facade = new ProductFacade(new ProductApplication(Catalogs.repository(storage, catalogSize), service));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Catalogs.deleteRecursively(imageRoot);
+    }
+
+    @Benchmark
+    public float sellProduct(Ids ids) {
+        return facade.sellProduct(ids.random.nextInt(catalogSize), 1 + ids.random.nextInt(5));
+    }
+
+    @Benchmark
+    public boolean exists(Ids ids) {
+        return facade.exists(ids.random.nextInt(catalogSize));
+    }
+}
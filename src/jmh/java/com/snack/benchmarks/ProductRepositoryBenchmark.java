@@ -0,0 +1,83 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer repository hot paths. {@code readWriteMix} and {@code removeAndAppend} write, and the
+ * {@code HASH} and {@code INT_HASH} storages are not thread-safe, so with several threads run either the
+ * read-only benchmarks ({@code -Djmh.args="-t 8 ProductRepositoryBenchmark.(getById|exists)"}) or only
+ * the thread-safe storages ({@code -Djmh.args="-t 8 -p storage=CONCURRENT,SNAPSHOT"}); see
+ * {@link ConcurrentRepositoryBenchmark} for concurrent reads and writes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ProductRepositoryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int catalogSize;
+
+    @Param({"HASH", "INT_HASH", "CONCURRENT", "SNAPSHOT"})
+    private String storage;
+
+    private ProductRepository repository;
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    // a state of its own, so only readWriteMix is multiplied by this parameter
+    @State(Scope.Benchmark)
+    public static class Mix {
+        @Param({"0", "10"})
+        private int writePercent;
+    }
+
+    @Setup
+    public void setup() {
+        repository = Catalogs.repository(storage, catalogSize);
+    }
+
+    @Benchmark
+    public Product getById(Ids ids) {
+        return repository.getById(ids.random.nextInt(catalogSize));
+    }
+
+    @Benchmark
+    public boolean exists(Ids ids) {
+        // half of the lookups miss
+        return repository.exists(ids.random.nextInt(catalogSize * 2));
+    }
+
+    @Benchmark
+    public Object readWriteMix(Ids ids, Mix mix) {
+        int id = ids.random.nextInt(catalogSize);
+
+        if (ids.random.nextInt(100) < mix.writePercent) {
+            repository.update(id, Catalogs.product(id));
+            return null;
+        }
+
+        return repository.getById(id);
+    }
+
+    @Benchmark
+    public Object removeAndAppend(Ids ids) {
+        int id = ids.random.nextInt(catalogSize);
+        repository.remove(id);
+        repository.append(Catalogs.product(id));
+        return repository;
+    }
+}
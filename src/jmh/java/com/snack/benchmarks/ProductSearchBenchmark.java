@@ -0,0 +1,60 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductFilter;
+import com.snack.repositories.ProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Description and price lookups through the secondary indexes against filtering a full scan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+    private static final String PREFIX = "product 4242";
+
+    @Param({"10000", "1000000"})
+    private int catalogSize;
+
+    private ProductRepository repository;
+
+    @Setup
+    public void setup() {
+        repository = Catalogs.repository("HASH", catalogSize, true);
+        // the indexes are built by the first search
+        repository.searchByWords(PREFIX);
+    }
+
+    @Benchmark
+    public List<Product> indexedPrefix() {
+        return repository.searchByDescriptionPrefix(PREFIX);
+    }
+
+    @Benchmark
+    public List<Product> scannedPrefix() {
+        return repository.stream(ProductFilter.ALL.withDescriptionPrefix(PREFIX)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Product> indexedWords() {
+        return repository.searchByWords("4242");
+    }
+
+    @Benchmark
+    public List<Product> indexedPriceRange() {
+        // one price out of the hundred used by the catalog, so 1% of the products
+        return repository.getByPriceRange(10f, 10f);
+    }
+}
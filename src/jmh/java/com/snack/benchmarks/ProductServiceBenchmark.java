@@ -0,0 +1,81 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.services.ImageStorageConfig;
+import com.snack.services.ImageTransferStrategy;
+import com.snack.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image save/remove against a temp directory, for 1 KB to 20 MB images and every transfer strategy.
+ * Point {@code java.io.tmpdir} at another filesystem to measure it instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+    @Param({"1024", "65536", "1048576", "20971520"})
+    private int imageSize;
+
+    @Param({"COPY", "TRANSFER", "HARD_LINK", "MOVE"})
+    private ImageTransferStrategy strategy;
+
+    private Path root;
+    private Path source;
+    private Path original;
+    private ProductService service;
+    private Product product;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("service-bench");
+        byte[] content = new byte[imageSize];
+        new Random(imageSize).nextBytes(content);
+        original = Files.write(root.resolve("original.jpg"), content);
+        source = root.resolve("source.jpg");
+        service = new ProductService(new ImageStorageConfig(root.resolve("images")));
+        service.setTransferStrategy(strategy);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepare() throws IOException {
+        if (!Files.exists(source)) {
+            // MOVE consumes its source
+            Files.copy(original, source);
+        }
+        product = new Product(1, "Hot Dog", 10f, source.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        Catalogs.deleteRecursively(root);
+    }
+
+    @Benchmark
+    public boolean save() {
+        return service.save(product);
+    }
+
+    @Benchmark
+    public boolean saveAndRemove() {
+        boolean saved = service.save(product);
+        service.remove(product.getId());
+        return saved;
+    }
+}
@@ -0,0 +1,75 @@
+package com.snack.benchmarks;
+
+import com.snack.entities.Product;
+import com.snack.repositories.CatalogRepository;
+import com.snack.repositories.RepositoryEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The engines {@code App} can pick from, through the {@link CatalogRepository} interface.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RepositoryEngineBenchmark {
+    @Param({"1000", "10000"})
+    private int catalogSize;
+
+    @Param({"LIST", "INDEXED", "PERSISTENT"})
+    private String engine;
+
+    private Path directory;
+    private CatalogRepository repository;
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("engine-bench");
+        repository = RepositoryEngine.valueOf(engine).open(directory);
+        List<Product> products = new ArrayList<Product>(catalogSize);
+
+        for (int id = 0; id < catalogSize; id++) {
+            products.add(Catalogs.product(id));
+        }
+
+        repository.appendAll(products);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        repository.close();
+        Catalogs.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Product getById(Ids ids) {
+        return repository.getById(ids.random.nextInt(catalogSize));
+    }
+
+    @Benchmark
+    public CatalogRepository update(Ids ids) {
+        int id = ids.random.nextInt(catalogSize);
+        repository.update(id, Catalogs.product(id));
+        return repository;
+    }
+}
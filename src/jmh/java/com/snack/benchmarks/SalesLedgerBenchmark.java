@@ -0,0 +1,74 @@
+package com.snack.benchmarks;
+
+import com.snack.sales.SalesLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recording sales from four threads, mostly on a few hot products: the striped ledger against a map of
+ * totals behind one lock.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class SalesLedgerBenchmark {
+    private static final int PRODUCTS = 1_000;
+
+    private final SalesLedger ledger = new SalesLedger();
+    private final Map<Integer, long[]> locked = new HashMap<Integer, long[]>();
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            ledger.record(random.nextInt(PRODUCTS), 1, 150);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+
+        // half of the sales go to ten products
+        int next() {
+            return random.nextBoolean() ? random.nextInt(10) : random.nextInt(PRODUCTS);
+        }
+    }
+
+    @Benchmark
+    public SalesLedger striped(Ids ids) {
+        ledger.record(ids.next(), 1, 150);
+        return ledger;
+    }
+
+    @Benchmark
+    public Map<Integer, long[]> singleLock(Ids ids) {
+        int id = ids.next();
+
+        synchronized (locked) {
+            long[] totals = locked.computeIfAbsent(id, key -> new long[2]);
+            totals[0] += 1;
+            totals[1] += 150;
+        }
+        return locked;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object topSellers() {
+        return ledger.topSellers(10);
+    }
+}
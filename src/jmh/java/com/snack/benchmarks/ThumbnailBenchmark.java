@@ -0,0 +1,76 @@
+package com.snack.benchmarks;
+
+import com.snack.services.ImageIngestionExecutor;
+import com.snack.services.ThumbnailService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regenerating the 64 and 256 pixel thumbnails of a whole catalog of 1600x1200 JPEGs, with the work spread
+ * over {@code parallelism} workers. Divide the catalog size by the score for images per second.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ThumbnailBenchmark {
+    private static final int CATALOG_SIZE = 200;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private Path directory;
+    private List<Path> images;
+    private ImageIngestionExecutor executor;
+    private ThumbnailService thumbnails;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("thumbnail-bench");
+        images = new ArrayList<Path>(CATALOG_SIZE);
+
+        for (int id = 0; id < CATALOG_SIZE; id++) {
+            BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            graphics.setPaint(new GradientPaint(0, 0, new Color(id * 1000), 1600, 1200, Color.ORANGE));
+            graphics.fillRect(0, 0, 1600, 1200);
+            graphics.dispose();
+
+            Path path = directory.resolve(id + ".jpg");
+            ImageIO.write(image, "jpg", path.toFile());
+            images.add(path);
+        }
+
+        executor = new ImageIngestionExecutor(parallelism, CATALOG_SIZE);
+        thumbnails = new ThumbnailService(ThumbnailService.DEFAULT_SIZES, ThumbnailService.DEFAULT_CACHE_BYTES, executor);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        executor.close();
+        Catalogs.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int regenerateAll() {
+        return thumbnails.regenerateAll(images).join();
+    }
+}
@@ -3,9 +3,14 @@ package com.snack;
 import com.snack.applications.ProductApplication;
 import com.snack.entities.Product;
 import com.snack.facade.ProductFacade;
-import com.snack.repositories.ProductRepository;
+import com.snack.metrics.Metrics;
+import com.snack.repositories.CatalogRepository;
+import com.snack.repositories.ProductFilter;
+import com.snack.repositories.RepositoryEngine;
 import com.snack.services.ProductService;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Scanner;
 
@@ -13,25 +18,31 @@ import java.util.Scanner;
  * Hello world!
  */
 public class App {
-    private static ProductRepository productRepository;
+    private static CatalogRepository productRepository;
     private static ProductService productService;
     private static ProductApplication productApplication;
     private static ProductFacade productFacade;
     private static List<Product> products;
     private static Scanner scanner;
 
-    public static void resolveDependencies() {
-        productRepository = new ProductRepository();
+    public static void resolveDependencies() throws IOException {
+        productRepository = RepositoryEngine.fromEnvironment().open(RepositoryEngine.directoryFromEnvironment(),
+                RepositoryEngine.searchIndexFromEnvironment());
         productService = new ProductService();
         productApplication = new ProductApplication(productRepository, productService);
         productFacade = new ProductFacade(productApplication);
         scanner = new Scanner(System.in);
+        Metrics.registerMBean();
     }
 
     public static void initializeProducts() {
-        Product product1 = new Product(1, "Hotdog", 4.00f, "C:\\Users\\aluno\\Produtos\\HotDog.jpg");
+        String image = Paths.get(System.getProperty("user.home"), "Produtos", "HotDog.jpg").toString();
+        Product product1 = new Product(1, "Hotdog", 4.00f, image);
 
-        productFacade.append(product1);
+        // a persistent catalog still has it from the previous run
+        if (!productFacade.exists(product1.getId())) {
+            productFacade.append(product1);
+        }
     }
 
     public static void showMenu() {
@@ -52,7 +63,7 @@ public class App {
         StringBuilder menu = new StringBuilder();
         String formatText = "%-10s %-20s %-20s%n";
         System.out.print(String.format(formatText, "Id", "Name", "Price"));
-        productFacade.getAll().forEach(p -> {
+        productFacade.stream(ProductFilter.ALL).forEach(p -> {
             System.out.print(p);
         });
     }
@@ -139,9 +150,11 @@ public class App {
         } while (menuOption != 6);
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         resolveDependencies();
         initializeProducts();
         run();
+        productService.close();
+        productRepository.close();
     }
 }
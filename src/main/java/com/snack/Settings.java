@@ -0,0 +1,23 @@
+package com.snack;
+
+/**
+ * Configuration read from a system property, falling back to an environment variable.
+ */
+public final class Settings {
+    private Settings() {
+    }
+
+    /**
+     * @return the system property, else the environment variable, else {@code defaultValue} when both are
+     * unset or blank
+     */
+    public static String get(String property, String variable, String defaultValue) {
+        String value = System.getProperty(property);
+
+        if (value == null) {
+            value = System.getenv(variable);
+        }
+
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
@@ -0,0 +1,281 @@
+package com.snack.applications;
+
+import com.snack.entities.Product;
+import com.snack.events.CatalogEvent;
+import com.snack.metrics.Metrics;
+import com.snack.metrics.Timer;
+import com.snack.repositories.CatalogRepository;
+import com.snack.services.ImageTransaction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends, updates and removes that reach the repository and the image store all together or not at all,
+ * as long as the process keeps running.
+ * <p>
+ * Images are copied as soon as an operation is recorded; nothing becomes visible until {@link #commit()}.
+ * A commit first checks every operation against the repository, then syncs and renames the images, and
+ * finally writes the repository with one batch per run of operations of the same kind, so a durable storage
+ * syncs its log once per batch instead of once per product. If any step fails, the repository writes already
+ * made are reverted, the images are restored and the exception is rethrown. Closing a transaction that was
+ * not committed rolls it back. Commits are serialized against each other, not against plain writes. Events
+ * are published only once the whole transaction has been applied.
+ * <p>
+ * This is not crash-consistent: nothing records the transaction on disk, so a crash between renaming the
+ * images and writing the repository leaves the new images in place next to the old catalog, and the backup
+ * and staged files behind. The repository is written with copies of the given products, which only get
+ * their final image path once the commit succeeds.
+ */
+public class CatalogTransaction implements AutoCloseable {
+    private static final Timer COMMIT = Metrics.timer("application.transaction");
+
+    private enum Kind { APPEND, UPDATE, REMOVE }
+
+    private record Operation(Kind kind, int id, Product product, Path image) {
+    }
+
+    private final ProductApplication application;
+    private final CatalogRepository repository;
+    private final ImageTransaction images;
+    private final Object commitLock;
+    private final List<Operation> operations = new ArrayList<Operation>();
+    private final List<Operation> undoLog = new ArrayList<Operation>();
+    private boolean finished;
+
+    CatalogTransaction(ProductApplication application, CatalogRepository repository, ImageTransaction images,
+                       Object commitLock) {
+        this.application = application;
+        this.repository = repository;
+        this.images = images;
+        this.commitLock = commitLock;
+    }
+
+    public CatalogTransaction append(Product product) throws IOException {
+        checkOpen();
+        this.operations.add(new Operation(Kind.APPEND, product.getId(), product, stage(product)));
+        return this;
+    }
+
+    public CatalogTransaction update(int id, Product product) throws IOException {
+        checkOpen();
+        this.images.stageRemoval(id);
+        this.operations.add(new Operation(Kind.UPDATE, id, product, stage(product)));
+        return this;
+    }
+
+    public CatalogTransaction remove(int id) {
+        checkOpen();
+        this.images.stageRemoval(id);
+        this.operations.add(new Operation(Kind.REMOVE, id, null, null));
+        return this;
+    }
+
+    // like ProductService.save, a product whose image file does not exist is kept without one
+    private Path stage(Product product) throws IOException {
+        if (product.getImage() == null) {
+            return null;
+        }
+
+        Path source = Paths.get(product.getImage());
+        return Files.exists(source) ? this.images.stage(product.getId(), source) : null;
+    }
+
+    /**
+     * @throws IllegalArgumentException if an appended id is taken, nothing being applied
+     * @throws NoSuchElementException if an updated or removed id does not exist, nothing being applied
+     */
+    public void commit() throws IOException {
+        checkOpen();
+        this.finished = true;
+
+        synchronized (this.commitLock) {
+            long start = COMMIT.start();
+            // held until the events are out, so plain writes of these ids cannot publish in between
+            List<ReentrantLock> locked = this.application.lockAll(this.operations.stream().map(Operation::id).toList());
+
+            try {
+                try {
+                    validate();
+                    this.images.prepare();
+                    this.images.commit();
+                    applyBatches();
+                } catch (IOException | RuntimeException | Error e) {
+                    try {
+                        undo();
+                    } finally {
+                        this.images.rollback();
+                    }
+                    throw e;
+                }
+
+                this.images.finish();
+
+                // whether an id ends removed or appended again, its stock went with the product it was set for
+                for (Operation operation : this.operations) {
+                    if (operation.kind() == Kind.REMOVE) {
+                        this.application.getInventory().remove(operation.id());
+                    }
+                }
+
+                for (Operation operation : this.operations) {
+                    if (operation.image() != null) {
+                        operation.product().setImage(operation.image().toString());
+                    }
+                    this.application.publish(event(operation.kind()), operation.id(), operation.product(), 0);
+                }
+            } finally {
+                ProductApplication.unlockAll(locked);
+                COMMIT.stop(start);
+            }
+        }
+    }
+
+    /**
+     * Discards the transaction; the staged images are deleted.
+     */
+    public void rollback() {
+        if (!this.finished) {
+            this.finished = true;
+            this.images.rollback();
+        }
+    }
+
+    @Override
+    public void close() {
+        rollback();
+    }
+
+    public int size() {
+        return this.operations.size();
+    }
+
+    private void checkOpen() {
+        if (this.finished) {
+            throw new IllegalStateException("Transaction already committed or rolled back");
+        }
+    }
+
+    // replays the ids in the order of the operations, so an id appended earlier can be updated or removed later
+    private void validate() {
+        Map<Integer, Boolean> present = new HashMap<Integer, Boolean>();
+
+        for (Operation operation : this.operations) {
+            boolean exists = present.computeIfAbsent(operation.id(), this.repository::exists);
+
+            if (operation.kind() == Kind.APPEND) {
+                if (exists) {
+                    throw new IllegalArgumentException("A product with id " + operation.id() + " already exists");
+                }
+            } else if (!exists) {
+                throw new NoSuchElementException("No product with id " + operation.id());
+            }
+
+            present.put(operation.id(), operation.kind() != Kind.REMOVE);
+        }
+    }
+
+    private void applyBatches() {
+        int from = 0;
+
+        while (from < this.operations.size()) {
+            Kind kind = this.operations.get(from).kind();
+            Set<Integer> ids = new HashSet<Integer>();
+            int to = from;
+
+            // an id repeated inside a batch would leave the undo log with a stale previous value
+            while (to < this.operations.size() && this.operations.get(to).kind() == kind
+                    && ids.add(this.operations.get(to).id())) {
+                to++;
+            }
+
+            apply(kind, this.operations.subList(from, to));
+            from = to;
+        }
+    }
+
+    private void apply(Kind kind, List<Operation> batch) {
+        List<Product> products = new ArrayList<Product>(batch.size());
+        List<Integer> ids = new ArrayList<Integer>(batch.size());
+        boolean keyedById = true;
+
+        // logged before writing, so a batch that fails halfway is reverted too
+        for (Operation operation : batch) {
+            Product previous = kind == Kind.APPEND ? null : copy(this.repository.getById(operation.id()));
+            this.undoLog.add(new Operation(kind, operation.id(), previous, null));
+            products.add(operation.product() == null ? null : stored(operation));
+            ids.add(operation.id());
+            keyedById &= kind != Kind.UPDATE || operation.product().getId() == operation.id();
+        }
+
+        // updateAll keys by product id, update(id, product) by the given one
+        if (!keyedById) {
+            for (Operation operation : batch) {
+                this.repository.update(operation.id(), stored(operation));
+            }
+            return;
+        }
+
+        switch (kind) {
+            case APPEND -> this.repository.appendAll(products);
+            case UPDATE -> this.repository.updateAll(products);
+            case REMOVE -> this.repository.removeAll(ids);
+        }
+    }
+
+    private static CatalogEvent.Type event(Kind kind) {
+        return switch (kind) {
+            case APPEND -> CatalogEvent.Type.APPENDED;
+            case UPDATE -> CatalogEvent.Type.UPDATED;
+            case REMOVE -> CatalogEvent.Type.REMOVED;
+        };
+    }
+
+    // the caller's product is left alone until the commit has succeeded
+    private static Product stored(Operation operation) {
+        Product product = copy(operation.product());
+        if (operation.image() != null) {
+            product.setImage(operation.image().toString());
+        }
+        return product;
+    }
+
+    // storages update in place, so the value to restore must not be the stored instance
+    private static Product copy(Product product) {
+        return new Product(product.getId(), product.getDescription(), product.getPrice(), product.getImage());
+    }
+
+    private void undo() {
+        for (int i = this.undoLog.size() - 1; i >= 0; i--) {
+            Operation undo = this.undoLog.get(i);
+
+            switch (undo.kind()) {
+                case APPEND -> this.repository.remove(undo.id());
+                case UPDATE -> {
+                    if (this.repository.exists(undo.id())) {
+                        this.repository.update(undo.id(), undo.product());
+                    }
+                }
+                case REMOVE -> {
+                    if (this.repository.exists(undo.id())) {
+                        this.repository.update(undo.id(), undo.product());
+                    } else {
+                        this.repository.append(undo.product());
+                    }
+                }
+            }
+        }
+
+        this.undoLog.clear();
+    }
+}
@@ -1,49 +1,558 @@
 package com.snack.applications;
 
+import com.snack.entities.Cart;
+import com.snack.entities.CartError;
 import com.snack.entities.Product;
-import com.snack.repositories.ProductRepository;
+import com.snack.entities.ProductRecord;
+import com.snack.entities.Receipt;
+import com.snack.events.CatalogEvent;
+import com.snack.events.CatalogEventStream;
+import com.snack.inventory.Inventory;
+import com.snack.inventory.Reservation;
+import com.snack.metrics.Metrics;
+import com.snack.metrics.Timer;
+import com.snack.repositories.CatalogRepository;
+import com.snack.repositories.ProductFilter;
+import com.snack.repositories.ProductPage;
+import com.snack.repositories.storage.CatalogSnapshot;
+import com.snack.sales.SalesLedger;
 import com.snack.services.ProductService;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public class ProductApplication {
-    private ProductRepository productRepository;
+    private static final Timer APPEND = Metrics.timer("application.append");
+    private static final Timer REMOVE = Metrics.timer("application.remove");
+    private static final Timer UPDATE = Metrics.timer("application.update");
+    private static final Timer SELL_PRODUCT = Metrics.timer("application.sellProduct");
+    private static final Timer CHECKOUT = Metrics.timer("application.checkout");
+    private static final int WRITE_STRIPES = 64;
+
+    private CatalogRepository productRepository;
     private ProductService productService;
+    private final Object transactionLock = new Object();
+    private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_STRIPES];
+    private CatalogEventStream eventStream = new CatalogEventStream();
+    private SalesLedger salesLedger = new SalesLedger();
+    private Inventory inventory = new Inventory();
 
-    public ProductApplication(ProductRepository productRepository, ProductService productService) {
+    public ProductApplication(CatalogRepository productRepository, ProductService productService) {
         this.productRepository = productRepository;
         this.productService = productService;
+
+        for (int stripe = 0; stripe < WRITE_STRIPES; stripe++) {
+            this.writeLocks[stripe] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The stream every successful append, update, remove and sale is published on, or {@code null} when
+     * publishing is turned off. Appends, updates and removes of one product are published in the order they
+     * reached the repository.
+     */
+    public CatalogEventStream getEventStream() {
+        return this.eventStream;
+    }
+
+    public void setEventStream(CatalogEventStream eventStream) {
+        this.eventStream = eventStream;
+    }
+
+    /**
+     * The ledger every sale with a positive quantity is recorded in, or {@code null} when recording is off.
+     */
+    public SalesLedger getSalesLedger() {
+        return this.salesLedger;
+    }
+
+    public void setSalesLedger(SalesLedger salesLedger) {
+        this.salesLedger = salesLedger;
+    }
+
+    /**
+     * Stock levels checked by {@link #sellProduct(int, int)}, {@link #reserve(Cart)} and
+     * {@link #checkout(Cart)}; products never stocked sell without limit.
+     */
+    public Inventory getInventory() {
+        return this.inventory;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code inventory} is {@code null}; an empty inventory tracks nothing
+     */
+    public void setInventory(Inventory inventory) {
+        if (inventory == null) {
+            throw new IllegalArgumentException("The inventory must not be null");
+        }
+        this.inventory = inventory;
+    }
+
+    // a write and the publishing of its event happen under the lock of the id's stripe
+    private ReentrantLock writeLock(int id) {
+        return this.writeLocks[id & (WRITE_STRIPES - 1)];
+    }
+
+    /**
+     * Locks the stripes of all the ids, always in stripe order, so batches cannot deadlock each other.
+     */
+    List<ReentrantLock> lockAll(Collection<Integer> ids) {
+        boolean[] needed = new boolean[WRITE_STRIPES];
+        for (int id : ids) {
+            needed[id & (WRITE_STRIPES - 1)] = true;
+        }
+
+        List<ReentrantLock> locked = new ArrayList<ReentrantLock>();
+        for (int stripe = 0; stripe < WRITE_STRIPES; stripe++) {
+            if (needed[stripe]) {
+                this.writeLocks[stripe].lock();
+                locked.add(this.writeLocks[stripe]);
+            }
+        }
+        return locked;
+    }
+
+    static void unlockAll(List<ReentrantLock> locked) {
+        for (int i = locked.size() - 1; i >= 0; i--) {
+            locked.get(i).unlock();
+        }
+    }
+
+    private static List<Integer> ids(List<Product> products) {
+        List<Integer> ids = new ArrayList<Integer>(products.size());
+        for (Product product : products) {
+            ids.add(product.getId());
+        }
+        return ids;
+    }
+
+    void publish(CatalogEvent.Type type, int id, Product product, int quantity) {
+        CatalogEventStream stream = this.eventStream;
+
+        if (stream != null) {
+            stream.publish(type, id, product == null ? null : ProductRecord.of(product), quantity);
+        }
     }
 
     public List<Product> getAll() {
         return this.productRepository.getAll();
     }
 
+    public CatalogSnapshot snapshot() {
+        return this.productRepository.snapshot();
+    }
+
+    public Stream<Product> stream(ProductFilter filter) {
+        return this.productRepository.stream(filter);
+    }
+
+    public Stream<Product> parallelStream(ProductFilter filter) {
+        return this.productRepository.parallelStream(filter);
+    }
+
+    public ProductPage getPage(ProductFilter filter, long cursor, int pageSize) {
+        return this.productRepository.getPage(filter, cursor, pageSize);
+    }
+
+    public List<Product> searchByDescriptionPrefix(String prefix) {
+        return this.productRepository.searchByDescriptionPrefix(prefix);
+    }
+
+    public List<Product> searchByWords(String query) {
+        return this.productRepository.searchByWords(query);
+    }
+
+    public List<Product> getByPriceRange(float min, float max) {
+        return this.productRepository.getByPriceRange(min, max);
+    }
+
+    public byte[] getThumbnail(int id, int size) throws IOException {
+        return this.productService.getThumbnail(id, size);
+    }
+
     public Product getById(int id) {
         return this.productRepository.getById(id);
     }
 
+    public List<Product> getByIds(List<Integer> ids) {
+        return this.productRepository.getByIds(ids);
+    }
+
     public boolean exists(int id) {
         return this.productRepository.exists(id);
     }
 
+    /**
+     * Copies the image first, so the repository is written once, with the stored image path. The id's write
+     * lock is held from the existence check to the append, so a concurrent append of the same id cannot
+     * overwrite the image of the product that takes it.
+     */
     public void append(Product product) {
-        this.productRepository.append(product);
-        this.productService.save(product);
+        long start = APPEND.start();
+        try {
+            ReentrantLock lock = writeLock(product.getId());
+            lock.lock();
+            try {
+                if (this.productRepository.exists(product.getId())) {
+                    throw new IllegalArgumentException("A product with id " + product.getId() + " already exists");
+                }
+
+                this.productService.save(product);
+                this.productRepository.append(product);
+                publish(CatalogEvent.Type.APPENDED, product.getId(), product, 0);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            APPEND.stop(start);
+        }
+    }
+
+    /**
+     * Makes the product visible right away and copies its image in the background. The stored image path
+     * is filled in when the returned future completes with {@code true}.
+     * <p>
+     * The path is written from the image ingestion thread, under the id's write lock. Only storages whose
+     * writes are thread-safe, such as {@link com.snack.repositories.storage.ConcurrentProductStorage}, may
+     * be read meanwhile; with the others, the default {@link com.snack.repositories.storage.HashProductStorage}
+     * among them, wait for the future before reading the catalog again.
+     */
+    public CompletableFuture<Boolean> appendAsync(Product product) {
+        ReentrantLock lock = writeLock(product.getId());
+        lock.lock();
+        try {
+            this.productRepository.append(product);
+            publish(CatalogEvent.Type.APPENDED, product.getId(), product, 0);
+        } finally {
+            lock.unlock();
+        }
+
+        // the copy's image is filled in on the ingestion thread, not the instance the storage may hold
+        Product copy = new Product(product.getId(), product.getDescription(), product.getPrice(), product.getImage());
+
+        return this.productService.saveAsync(copy).thenApply(saved -> {
+            if (saved) {
+                lock.lock();
+                try {
+                    this.productRepository.updateImage(product.getId(), copy.getImage());
+                    publish(CatalogEvent.Type.UPDATED, product.getId(), this.productRepository.getById(product.getId()), 0);
+                } catch (NoSuchElementException e) {
+                    // removed while its image was being copied
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return saved;
+        });
     }
 
     public void remove(int id) {
-        this.productRepository.remove(id);
-        this.productService.remove(id);
+        long start = REMOVE.start();
+        try {
+            ReentrantLock lock = writeLock(id);
+            lock.lock();
+            try {
+                this.productRepository.remove(id);
+                // before the image, whose removal throws for a product without one
+                this.inventory.remove(id);
+                publish(CatalogEvent.Type.REMOVED, id, null, 0);
+            } finally {
+                lock.unlock();
+            }
+            this.productService.remove(id);
+        } finally {
+            REMOVE.stop(start);
+        }
     }
 
+    /**
+     * Replaces the image first, so the repository is written once, with the stored image path.
+     */
     public void update(int id, Product product) {
-        this.productRepository.update(id, product);
-        this.productService.update(product);
+        long start = UPDATE.start();
+        try {
+            if (!this.productRepository.exists(id)) {
+                throw new NoSuchElementException("No product with id " + id);
+            }
+
+            this.productService.update(product);
+            ReentrantLock lock = writeLock(id);
+            lock.lock();
+            try {
+                this.productRepository.update(id, product);
+                publish(CatalogEvent.Type.UPDATED, id, product, 0);
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            UPDATE.stop(start);
+        }
+    }
+
+    /**
+     * Copies the images together, then appends the batch to the repository in one pass. Nothing is copied
+     * if any id is taken or repeated; the ids' write locks are held from that check to the append.
+     *
+     * @return for each product id, whether its image was saved
+     */
+    public Map<Integer, Boolean> appendAll(List<Product> products) {
+        Set<Integer> ids = new HashSet<Integer>();
+
+        for (Product product : products) {
+            if (!ids.add(product.getId())) {
+                throw new IllegalArgumentException("A product with id " + product.getId() + " already exists");
+            }
+        }
+
+        List<ReentrantLock> locked = lockAll(ids);
+        try {
+            for (Product product : products) {
+                if (this.productRepository.exists(product.getId())) {
+                    throw new IllegalArgumentException("A product with id " + product.getId() + " already exists");
+                }
+            }
+
+            Map<Integer, Boolean> results = this.productService.saveAll(products);
+            this.productRepository.appendAll(products);
+            publishAll(CatalogEvent.Type.APPENDED, products);
+            return results;
+        } finally {
+            unlockAll(locked);
+        }
+    }
+
+    /**
+     * @return for each id, whether its image was found and deleted
+     */
+    public Map<Integer, Boolean> removeAll(List<Integer> ids) {
+        List<ReentrantLock> locked = lockAll(ids);
+        try {
+            this.productRepository.removeAll(ids);
+            for (int id : ids) {
+                this.inventory.remove(id);
+                publish(CatalogEvent.Type.REMOVED, id, null, 0);
+            }
+        } finally {
+            unlockAll(locked);
+        }
+
+        return this.productService.removeAll(ids);
+    }
+
+    /**
+     * @return for each product id, whether its new image was saved
+     */
+    public Map<Integer, Boolean> updateAll(List<Product> products) {
+        for (Product product : products) {
+            if (!this.productRepository.exists(product.getId())) {
+                throw new NoSuchElementException("No product with id " + product.getId());
+            }
+        }
+
+        Map<Integer, Boolean> results = this.productService.updateAll(products);
+        List<ReentrantLock> locked = lockAll(ids(products));
+        try {
+            this.productRepository.updateAll(products);
+            publishAll(CatalogEvent.Type.UPDATED, products);
+        } finally {
+            unlockAll(locked);
+        }
+        return results;
     }
 
+    private void publishAll(CatalogEvent.Type type, List<Product> products) {
+        for (Product product : products) {
+            publish(type, product.getId(), product, 0);
+        }
+    }
+
+
+    /**
+     * Starts a transaction whose appends, updates and removes reach the repository and the image store
+     * together or not at all. Requires a service without a content store.
+     */
+    public CatalogTransaction begin() {
+        return new CatalogTransaction(this, this.productRepository, this.productService.begin(), this.transactionLock);
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code quantity} is not positive
+     * @throws IllegalStateException if the product is tracked by the inventory and short of stock
+     * @throws ArithmeticException if the amount in cents overflows a {@code long}
+     */
     public float sellProduct(int id, int quantity) {
-        Product product = this.productRepository.getById(id);
-        return product.sellProduct(quantity);
+        long start = SELL_PRODUCT.start();
+        try {
+            if (quantity <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+            }
+
+            Product product = this.productRepository.getById(id);
+            long cents = Math.multiplyExact(Receipt.toCents(product.getPrice()), quantity);
+
+            if (!this.inventory.tryTake(id, quantity)) {
+                throw new IllegalStateException("Not enough stock of product " + id + " to sell " + quantity);
+            }
+
+            float total = product.sellProduct(quantity);
+            sold(id, product, quantity, cents);
+            return total;
+        } finally {
+            SELL_PRODUCT.stop(start);
+        }
+    }
+
+    // exact cents, as on a receipt
+    private void sold(int id, Product product, int quantity, long cents) {
+        SalesLedger ledger = this.salesLedger;
+        if (ledger != null) {
+            ledger.record(id, quantity, cents);
+        }
+        publish(CatalogEvent.Type.SOLD, id, product, quantity);
+    }
+
+    /**
+     * Holds the cart's units in the inventory; see {@link Inventory#reserve(Cart)}. Lines of products that
+     * are not in the catalog are reported as {@link CartError.Reason#UNKNOWN_PRODUCT}.
+     */
+    public Reservation reserve(Cart cart) {
+        return this.inventory.reserve(cart, this.productRepository::exists);
+    }
+
+    /**
+     * Prices the reservation at the current prices and, if every line can be sold, confirms it and records
+     * every line as a sale in the sales ledger and on the event stream. A line whose product was removed
+     * since it was reserved is reported as {@link CartError.Reason#UNKNOWN_PRODUCT}; a receipt with errors
+     * sold nothing, and the reservation is released.
+     *
+     * @throws IllegalStateException if the reservation was already confirmed or released
+     */
+    public Receipt confirm(Reservation reservation) {
+        Cart cart = reservation.cart();
+
+        if (!reservation.isValid()) {
+            return new Receipt(new long[cart.size()], 0, reservation.errors());
+        }
+        if (reservation.state() != Reservation.State.HELD) {
+            throw new IllegalStateException("The reservation was already " + reservation.state().name().toLowerCase());
+        }
+
+        Receipt receipt = price(cart);
+
+        if (!receipt.isValid()) {
+            reservation.release();
+        } else if (!settle(reservation, receipt)) {
+            throw new IllegalStateException("The reservation was confirmed or released concurrently");
+        }
+        return receipt;
+    }
+
+    private boolean settle(Reservation reservation, Receipt receipt) {
+        if (!reservation.confirm()) {
+            return false;
+        }
+
+        Cart cart = reservation.cart();
+        List<Integer> ids = new ArrayList<Integer>(cart.size());
+        for (int line = 0; line < cart.size(); line++) {
+            ids.add(cart.productId(line));
+        }
+
+        Map<Integer, Product> products = new HashMap<Integer, Product>();
+        for (Product product : this.productRepository.getByIds(ids)) {
+            products.put(product.getId(), product);
+        }
+
+        for (int line = 0; line < cart.size(); line++) {
+            sold(cart.productId(line), products.get(cart.productId(line)), cart.quantity(line), receipt.lineCents(line));
+        }
+        return true;
+    }
+
+    /**
+     * Prices every line of the cart with a single repository pass and, if every line is valid, sells the
+     * cart: its units are reserved in the inventory and the reservation confirmed, which records the sale.
+     * Unknown products, non-positive quantities, amounts that overflow and lines short of stock are reported
+     * as errors on the receipt instead of thrown; a receipt with errors sold nothing.
+     */
+    public Receipt checkout(Cart cart) {
+        long start = CHECKOUT.start();
+        try {
+            return sell(cart);
+        } finally {
+            CHECKOUT.stop(start);
+        }
+    }
+
+    private Receipt sell(Cart cart) {
+        Receipt receipt = price(cart);
+
+        if (!receipt.isValid()) {
+            return receipt;
+        }
+
+        Reservation reservation = this.inventory.reserve(cart);
+
+        if (reservation.isValid()) {
+            settle(reservation, receipt);
+            return receipt;
+        }
+
+        long[] lineCents = new long[cart.size()];
+        long total = receipt.totalCents();
+        for (int line = 0; line < lineCents.length; line++) {
+            lineCents[line] = receipt.lineCents(line);
+        }
+        for (CartError error : reservation.errors()) {
+            total -= lineCents[error.line()];
+            lineCents[error.line()] = 0;
+        }
+        return new Receipt(lineCents, total, reservation.errors());
+    }
+
+    private Receipt price(Cart cart) {
+        float[] prices = this.productRepository.getPrices(cart);
+        long[] lineCents = new long[cart.size()];
+        List<CartError> errors = Collections.emptyList();
+        long total = 0;
+
+        for (int line = 0; line < lineCents.length; line++) {
+            int quantity = cart.quantity(line);
+            CartError.Reason reason = null;
+
+            if (Float.isNaN(prices[line])) {
+                reason = CartError.Reason.UNKNOWN_PRODUCT;
+            } else if (quantity <= 0) {
+                reason = CartError.Reason.INVALID_QUANTITY;
+            } else {
+                try {
+                    long cents = Math.multiplyExact(Receipt.toCents(prices[line]), quantity);
+                    total = Math.addExact(total, cents);
+                    lineCents[line] = cents;
+                } catch (ArithmeticException e) {
+                    reason = CartError.Reason.TOTAL_OVERFLOW;
+                }
+            }
+
+            if (reason != null) {
+                if (errors.isEmpty()) {
+                    errors = new ArrayList<CartError>();
+                }
+                errors.add(new CartError(line, cart.productId(line), quantity, reason));
+            }
+        }
+
+        return new Receipt(lineCents, total, errors);
     }
 }
@@ -0,0 +1,54 @@
+package com.snack.entities;
+
+import java.util.Arrays;
+
+/**
+ * Lines of a sale, each a product id and a quantity, kept in two growable int arrays so building a large
+ * basket does not allocate per line. Lines are not validated here; pricing reports bad ones as
+ * {@link CartError}s.
+ */
+public class Cart {
+    private int[] productIds;
+    private int[] quantities;
+    private int size;
+
+    public Cart() {
+        this(8);
+    }
+
+    public Cart(int expectedLines) {
+        this.productIds = new int[Math.max(1, expectedLines)];
+        this.quantities = new int[Math.max(1, expectedLines)];
+    }
+
+    public Cart add(int productId, int quantity) {
+        if (size == productIds.length) {
+            productIds = Arrays.copyOf(productIds, size * 2);
+            quantities = Arrays.copyOf(quantities, size * 2);
+        }
+
+        productIds[size] = productId;
+        quantities[size] = quantity;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int productId(int line) {
+        return productIds[checkLine(line)];
+    }
+
+    public int quantity(int line) {
+        return quantities[checkLine(line)];
+    }
+
+    private int checkLine(int line) {
+        if (line < 0 || line >= size) {
+            throw new IndexOutOfBoundsException("Line " + line + " out of " + size);
+        }
+        return line;
+    }
+}
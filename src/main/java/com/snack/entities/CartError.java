@@ -0,0 +1,13 @@
+package com.snack.entities;
+
+/**
+ * Why a line of a {@link Cart} could not be priced or reserved.
+ */
+public record CartError(int line, int productId, int quantity, Reason reason) {
+    public enum Reason {
+        UNKNOWN_PRODUCT,
+        INVALID_QUANTITY,
+        TOTAL_OVERFLOW,
+        OUT_OF_STOCK
+    }
+}
@@ -0,0 +1,19 @@
+package com.snack.entities;
+
+/**
+ * Immutable view of a {@link Product}, safe to share between threads without copying.
+ */
+public record ProductRecord(int id, String description, float price, String image) {
+
+    public static ProductRecord of(Product product) {
+        return new ProductRecord(product.getId(), product.getDescription(), product.getPrice(), product.getImage());
+    }
+
+    public Product toProduct() {
+        return new Product(id, description, price, image);
+    }
+
+    public float sellProduct(int quantity) {
+        return this.price * quantity;
+    }
+}
@@ -0,0 +1,59 @@
+package com.snack.entities;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Priced {@link Cart}. Amounts are whole cents in {@code long}s, so totals do not drift the way summed
+ * {@code float}s do. Lines with errors are priced at zero and left out of the total; a receipt with errors
+ * should not be charged.
+ */
+public class Receipt {
+    private final long[] lineCents;
+    private final long totalCents;
+    private final List<CartError> errors;
+
+    public Receipt(long[] lineCents, long totalCents, List<CartError> errors) {
+        this.lineCents = lineCents;
+        this.totalCents = totalCents;
+        this.errors = Collections.unmodifiableList(errors);
+    }
+
+    public int lineCount() {
+        return lineCents.length;
+    }
+
+    public long lineCents(int line) {
+        return lineCents[line];
+    }
+
+    public long totalCents() {
+        return totalCents;
+    }
+
+    public List<CartError> errors() {
+        return errors;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    /**
+     * Converts a price to whole cents, rounding half up.
+     */
+    public static long toCents(float price) {
+        return Math.round((double) price * 100);
+    }
+
+    public static String formatCents(long cents) {
+        String sign = cents < 0 ? "-" : "";
+        long absolute = Math.abs(cents);
+        return String.format("%s%d.%02d", sign, absolute / 100, absolute % 100);
+    }
+
+    @Override
+    public String toString() {
+        return "Total: " + formatCents(totalCents) + (errors.isEmpty() ? "" : " " + errors);
+    }
+}
@@ -0,0 +1,21 @@
+package com.snack.events;
+
+import com.snack.entities.ProductRecord;
+
+/**
+ * One change to the catalog, as published on a {@link CatalogEventStream}.
+ *
+ * @param sequence  position in the stream, starting at 0 and without gaps
+ * @param product   the product after the change, or {@code null} for {@link Type#REMOVED}
+ * @param quantity  units sold for {@link Type#SOLD}, 0 otherwise
+ * @param timestamp wall-clock time of the change, in milliseconds
+ */
+public record CatalogEvent(long sequence, Type type, int productId, ProductRecord product, int quantity,
+                           long timestamp) {
+    public enum Type {
+        APPENDED,
+        UPDATED,
+        REMOVED,
+        SOLD
+    }
+}
@@ -0,0 +1,166 @@
+package com.snack.events;
+
+import com.snack.entities.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free feed of {@link CatalogEvent}s, read by any number of independent {@link Cursor}s.
+ * <p>
+ * Producers claim a sequence with a single atomic increment and store the event in slot
+ * {@code sequence % capacity}; nothing waits for consumers, so the oldest events are overwritten once the
+ * ring is full. Each event carries its own sequence, which lets a cursor tell a slot that is still being
+ * written (an older sequence) from one that was overwritten (a newer one). A cursor that falls a whole
+ * ring behind skips to the oldest event still available and counts the ones it lost in {@link Cursor#missed()}.
+ * Events are immutable, so a reader never sees one half written.
+ */
+public final class CatalogEventStream {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final AtomicReferenceArray<CatalogEvent> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    public CatalogEventStream() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public CatalogEventStream(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+
+        this.slots = new AtomicReferenceArray<CatalogEvent>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the sequence of the published event
+     */
+    public long publish(CatalogEvent.Type type, int productId, ProductRecord product, int quantity) {
+        long sequence = next.getAndIncrement();
+        CatalogEvent event = new CatalogEvent(sequence, type, productId, product, quantity, System.currentTimeMillis());
+        int slot = (int) sequence & mask;
+        CatalogEvent current = slots.getAcquire(slot);
+
+        // a producer a whole ring ahead may have stored first; its event must not be replaced by this older one
+        while (current == null || current.sequence() < sequence) {
+            if (slots.weakCompareAndSetRelease(slot, current, event)) {
+                break;
+            }
+            current = slots.getAcquire(slot);
+        }
+
+        return sequence;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return the sequence the next published event will get
+     */
+    public long head() {
+        return next.get();
+    }
+
+    /**
+     * @return the sequence of the oldest event that may still be read
+     */
+    public long oldest() {
+        return Math.max(0, next.get() - capacity());
+    }
+
+    /**
+     * Returns a cursor that sees only the events published from now on.
+     */
+    public Cursor cursor() {
+        return new Cursor(next.get());
+    }
+
+    /**
+     * Resumes reading at {@code sequence}, typically a {@link Cursor#position()} saved earlier.
+     */
+    public Cursor cursor(long sequence) {
+        if (sequence < 0 || sequence > next.get()) {
+            throw new IllegalArgumentException("Sequence " + sequence + " is not in [0, " + next.get() + "]");
+        }
+
+        return new Cursor(sequence);
+    }
+
+    /**
+     * One consumer's position in the stream. Not thread-safe; give each consumer its own.
+     */
+    public final class Cursor {
+        private long position;
+        private long missed;
+
+        private Cursor(long position) {
+            this.position = position;
+        }
+
+        /**
+         * Hands up to {@code max} events to {@code handler}, in sequence order, without waiting for more.
+         *
+         * @return the number of events handled
+         */
+        public int poll(Consumer<? super CatalogEvent> handler, int max) {
+            int count = 0;
+
+            while (count < max) {
+                CatalogEvent event = slots.getAcquire((int) position & mask);
+
+                if (event == null || event.sequence() < position) {
+                    // not published yet
+                    break;
+                }
+
+                if (event.sequence() > position) {
+                    long resume = Math.max(position + 1, next.get() - capacity());
+                    missed += resume - position;
+                    position = resume;
+                    continue;
+                }
+
+                handler.accept(event);
+                position++;
+                count++;
+            }
+
+            return count;
+        }
+
+        public List<CatalogEvent> poll(int max) {
+            List<CatalogEvent> events = new ArrayList<CatalogEvent>();
+            poll(events::add, max);
+            return events;
+        }
+
+        /**
+         * @return the sequence of the next event this cursor will read
+         */
+        public long position() {
+            return position;
+        }
+
+        /**
+         * @return how many events were overwritten before this cursor could read them
+         */
+        public long missed() {
+            return missed;
+        }
+
+        /**
+         * @return how many published events this cursor has not read yet
+         */
+        public long lag() {
+            return next.get() - position;
+        }
+    }
+}
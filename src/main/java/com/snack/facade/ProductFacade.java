@@ -1,11 +1,34 @@
 package com.snack.facade;
 
+import com.snack.applications.CatalogTransaction;
 import com.snack.applications.ProductApplication;
+import com.snack.entities.Cart;
 import com.snack.entities.Product;
+import com.snack.entities.Receipt;
+import com.snack.events.CatalogEventStream;
+import com.snack.inventory.Inventory;
+import com.snack.inventory.Reservation;
+import com.snack.metrics.Metrics;
+import com.snack.metrics.Timer;
+import com.snack.repositories.ProductFilter;
+import com.snack.repositories.ProductPage;
+import com.snack.repositories.storage.CatalogSnapshot;
+import com.snack.sales.SalesLedger;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class ProductFacade {
+    private static final Timer GET_BY_ID = Metrics.timer("facade.getById");
+    private static final Timer APPEND = Metrics.timer("facade.append");
+    private static final Timer REMOVE = Metrics.timer("facade.remove");
+    private static final Timer UPDATE = Metrics.timer("facade.update");
+    private static final Timer SELL_PRODUCT = Metrics.timer("facade.sellProduct");
+    private static final Timer CHECKOUT = Metrics.timer("facade.checkout");
+
     private ProductApplication productApplication;
 
     public ProductFacade(ProductApplication productApplication) {
@@ -16,8 +39,73 @@ public class ProductFacade {
         return this.productApplication.getAll();
     }
 
+    public CatalogSnapshot snapshot() {
+        return this.productApplication.snapshot();
+    }
+
+    public Stream<Product> stream(ProductFilter filter) {
+        return this.productApplication.stream(filter);
+    }
+
+    public Stream<Product> parallelStream(ProductFilter filter) {
+        return this.productApplication.parallelStream(filter);
+    }
+
+    public ProductPage getPage(ProductFilter filter, long cursor, int pageSize) {
+        return this.productApplication.getPage(filter, cursor, pageSize);
+    }
+
+    public List<Product> searchByDescriptionPrefix(String prefix) {
+        return this.productApplication.searchByDescriptionPrefix(prefix);
+    }
+
+    public List<Product> searchByWords(String query) {
+        return this.productApplication.searchByWords(query);
+    }
+
+    public List<Product> getByPriceRange(float min, float max) {
+        return this.productApplication.getByPriceRange(min, max);
+    }
+
+    public CatalogEventStream getEventStream() {
+        return this.productApplication.getEventStream();
+    }
+
+    public SalesLedger getSalesLedger() {
+        return this.productApplication.getSalesLedger();
+    }
+
+    public Inventory getInventory() {
+        return this.productApplication.getInventory();
+    }
+
+    public Reservation reserve(Cart cart) {
+        return this.productApplication.reserve(cart);
+    }
+
+    public Receipt confirm(Reservation reservation) {
+        return this.productApplication.confirm(reservation);
+    }
+
+    public CatalogTransaction begin() {
+        return this.productApplication.begin();
+    }
+
+    public byte[] getThumbnail(int id, int size) throws IOException {
+        return this.productApplication.getThumbnail(id, size);
+    }
+
     public Product getById(int id) {
-        return this.productApplication.getById(id);
+        long start = GET_BY_ID.start();
+        try {
+            return this.productApplication.getById(id);
+        } finally {
+            GET_BY_ID.stop(start);
+        }
+    }
+
+    public List<Product> getByIds(List<Integer> ids) {
+        return this.productApplication.getByIds(ids);
     }
 
     public boolean exists(int id) {
@@ -25,18 +113,63 @@ public class ProductFacade {
     }
 
     public void append(Product product) {
-        this.productApplication.append(product);
+        long start = APPEND.start();
+        try {
+            this.productApplication.append(product);
+        } finally {
+            APPEND.stop(start);
+        }
+    }
+
+    public CompletableFuture<Boolean> appendAsync(Product product) {
+        return this.productApplication.appendAsync(product);
     }
 
     public void remove(int id) {
-        this.productApplication.remove(id);
+        long start = REMOVE.start();
+        try {
+            this.productApplication.remove(id);
+        } finally {
+            REMOVE.stop(start);
+        }
     }
 
     public void update(int id, Product product) {
-        this.productApplication.update(id, product);
+        long start = UPDATE.start();
+        try {
+            this.productApplication.update(id, product);
+        } finally {
+            UPDATE.stop(start);
+        }
+    }
+
+    public Map<Integer, Boolean> appendAll(List<Product> products) {
+        return this.productApplication.appendAll(products);
+    }
+
+    public Map<Integer, Boolean> removeAll(List<Integer> ids) {
+        return this.productApplication.removeAll(ids);
+    }
+
+    public Map<Integer, Boolean> updateAll(List<Product> products) {
+        return this.productApplication.updateAll(products);
     }
 
     public float sellProduct(int id, int quantity) {
-        return this.productApplication.sellProduct(id, quantity);
+        long start = SELL_PRODUCT.start();
+        try {
+            return this.productApplication.sellProduct(id, quantity);
+        } finally {
+            SELL_PRODUCT.stop(start);
+        }
+    }
+
+    public Receipt checkout(Cart cart) {
+        long start = CHECKOUT.start();
+        try {
+            return this.productApplication.checkout(cart);
+        } finally {
+            CHECKOUT.stop(start);
+        }
     }
 }
@@ -0,0 +1,194 @@
+package com.snack.inventory;
+
+import com.snack.entities.Cart;
+import com.snack.entities.CartError;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+/**
+ * Stock levels per product, safe to sell from many terminals at once.
+ * <p>
+ * Each tracked product has its own counter of available units, changed only by compare-and-exchange through a
+ * {@link VarHandle}: a sale reads the count, checks it covers the quantity and swaps in the difference,
+ * retrying with the witnessed value if another sale got there first. There is no lock, and sales of
+ * different products never touch the same counter. Products that were never stocked are not tracked and can
+ * be sold without limit, so a catalog can adopt stock tracking one product at a time.
+ */
+public final class Inventory {
+    public static final long UNTRACKED = -1;
+
+    private final ConcurrentHashMap<Integer, Stock> stocks = new ConcurrentHashMap<Integer, Stock>();
+
+    static final class Stock {
+        private static final VarHandle AVAILABLE;
+        private static final VarHandle RESERVED;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                AVAILABLE = lookup.findVarHandle(Stock.class, "available", long.class);
+                RESERVED = lookup.findVarHandle(Stock.class, "reserved", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long available;
+        private volatile long reserved;
+
+        boolean take(long quantity) {
+            long current = available;
+
+            while (current >= quantity) {
+                long witness = (long) AVAILABLE.compareAndExchange(this, current, current - quantity);
+
+                if (witness == current) {
+                    return true;
+                }
+                current = witness;
+            }
+
+            return false;
+        }
+
+        long add(long quantity) {
+            return (long) AVAILABLE.getAndAdd(this, quantity) + quantity;
+        }
+
+        void set(long quantity) {
+            AVAILABLE.setVolatile(this, quantity);
+        }
+
+        void addReserved(long quantity) {
+            RESERVED.getAndAdd(this, quantity);
+        }
+
+        long available() {
+            return available;
+        }
+
+        long reserved() {
+            return reserved;
+        }
+    }
+
+    /**
+     * Starts tracking the product, or replaces its available count, with {@code units} available.
+     */
+    public void setStock(int productId, long units) {
+        checkNotNegative(units);
+        stocks.computeIfAbsent(productId, id -> new Stock()).set(units);
+    }
+
+    /**
+     * Adds {@code units} to the product's available count, tracking it from zero if it was not yet.
+     *
+     * @return the available count after restocking
+     */
+    public long restock(int productId, long units) {
+        checkNotNegative(units);
+        return stocks.computeIfAbsent(productId, id -> new Stock()).add(units);
+    }
+
+    /**
+     * Stops tracking the product, typically because it was removed from the catalog.
+     */
+    public void remove(int productId) {
+        stocks.remove(productId);
+    }
+
+    public boolean isTracked(int productId) {
+        return stocks.containsKey(productId);
+    }
+
+    /**
+     * @return the units that can still be sold or reserved, or {@link #UNTRACKED}
+     */
+    public long available(int productId) {
+        Stock stock = stocks.get(productId);
+        return stock == null ? UNTRACKED : stock.available();
+    }
+
+    /**
+     * @return the units held by open reservations, or {@link #UNTRACKED}
+     */
+    public long reserved(int productId) {
+        Stock stock = stocks.get(productId);
+        return stock == null ? UNTRACKED : stock.reserved();
+    }
+
+    /**
+     * Takes {@code quantity} units if that many are available.
+     *
+     * @return {@code false}, taking nothing, if the product is tracked and short of stock
+     */
+    public boolean tryTake(int productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+        }
+
+        Stock stock = stocks.get(productId);
+        return stock == null || stock.take(quantity);
+    }
+
+    /**
+     * Holds the cart's units until the reservation is confirmed or released. Either every line is reserved
+     * or, when some line is short of stock or has a non-positive quantity, none is and the reservation
+     * carries one error per such line.
+     */
+    public Reservation reserve(Cart cart) {
+        return reserve(cart, productId -> true);
+    }
+
+    /**
+     * Like {@link #reserve(Cart)}, also reporting the lines whose product {@code known} rejects.
+     */
+    public Reservation reserve(Cart cart, IntPredicate known) {
+        Stock[] held = new Stock[cart.size()];
+        List<CartError> errors = Collections.emptyList();
+
+        for (int line = 0; line < cart.size(); line++) {
+            int quantity = cart.quantity(line);
+            Stock stock = stocks.get(cart.productId(line));
+            CartError.Reason reason = null;
+
+            if (!known.test(cart.productId(line))) {
+                reason = CartError.Reason.UNKNOWN_PRODUCT;
+            } else if (quantity <= 0) {
+                reason = CartError.Reason.INVALID_QUANTITY;
+            } else if (stock != null) {
+                if (stock.take(quantity)) {
+                    stock.addReserved(quantity);
+                    held[line] = stock;
+                } else {
+                    reason = CartError.Reason.OUT_OF_STOCK;
+                }
+            }
+
+            if (reason != null) {
+                if (errors.isEmpty()) {
+                    errors = new ArrayList<CartError>();
+                }
+                errors.add(new CartError(line, cart.productId(line), quantity, reason));
+            }
+        }
+
+        Reservation reservation = new Reservation(cart, held, errors);
+        if (!errors.isEmpty()) {
+            reservation.release();
+        }
+        return reservation;
+    }
+
+    private static void checkNotNegative(long units) {
+        if (units < 0) {
+            throw new IllegalArgumentException("Units must not be negative: " + units);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.snack.inventory;
+
+import com.snack.entities.Cart;
+import com.snack.entities.CartError;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Units of a {@link Cart} held by {@link Inventory#reserve(Cart)}. Held units are neither available nor sold
+ * until {@link #confirm()} turns them into a sale or {@link #release()} puts them back; whichever is called
+ * first wins and the other does nothing.
+ */
+public final class Reservation {
+    public enum State {
+        HELD,
+        CONFIRMED,
+        RELEASED
+    }
+
+    private final Cart cart;
+    private final Inventory.Stock[] held;
+    private final List<CartError> errors;
+    private final AtomicReference<State> state = new AtomicReference<State>(State.HELD);
+
+    Reservation(Cart cart, Inventory.Stock[] held, List<CartError> errors) {
+        this.cart = cart;
+        this.held = held;
+        this.errors = errors;
+    }
+
+    public Cart cart() {
+        return cart;
+    }
+
+    /**
+     * @return the lines that could not be reserved; when not empty, nothing was reserved
+     */
+    public List<CartError> errors() {
+        return errors;
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public State state() {
+        return state.get();
+    }
+
+    /**
+     * Turns the held units into sold ones. This only settles the stock; {@code ProductApplication.confirm}
+     * also records the sale and publishes it.
+     *
+     * @return whether this call confirmed the reservation
+     */
+    public boolean confirm() {
+        if (!isValid() || !state.compareAndSet(State.HELD, State.CONFIRMED)) {
+            return false;
+        }
+
+        for (int line = 0; line < held.length; line++) {
+            if (held[line] != null) {
+                held[line].addReserved(-cart.quantity(line));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether this call released the reservation
+     */
+    public boolean release() {
+        if (!state.compareAndSet(State.HELD, State.RELEASED)) {
+            return false;
+        }
+
+        for (int line = 0; line < held.length; line++) {
+            if (held[line] != null) {
+                held[line].addReserved(-cart.quantity(line));
+                held[line].add(cart.quantity(line));
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package com.snack.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void add(long amount) {
+        if (Metrics.ENABLED) {
+            value.add(amount);
+        }
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
@@ -0,0 +1,103 @@
+package com.snack.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear (HDR-style) histogram of nanosecond latencies.
+ * <p>
+ * Every power of two is split into 16 linear sub-buckets, so any recorded value is reported within about
+ * 6% of its true value, from nanoseconds up to centuries, in under 1000 fixed buckets. Recording is a
+ * couple of atomic adds and never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) << SUB_BUCKET_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long lowestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int subBucket = bucket & (SUB_BUCKETS - 1);
+        return (long) (SUB_BUCKETS + subBucket) << ((bucket >>> SUB_BUCKET_BITS) - 1);
+    }
+
+    public long count() {
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+
+        return count;
+    }
+
+    public long max() {
+        return max.get();
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the lowest value of the bucket holding the given percentile (0-100), or 0 when empty.
+     */
+    public long percentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(lowestValueOf(i), max());
+            }
+        }
+
+        return max();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,116 @@
+package com.snack.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry of operation timers and counters.
+ * <p>
+ * Classes look their timers up once, into static final fields, so recording never touches the registry.
+ * Start the JVM with {@code -Dsnack.metrics.enabled=false} to turn recording off entirely: the flag is a
+ * static final constant, so the JIT removes the instrumentation.
+ */
+public final class Metrics implements MetricsMXBean {
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("snack.metrics.enabled", "true"));
+
+    private static final Metrics INSTANCE = new Metrics();
+    private static final String OBJECT_NAME = "com.snack:type=Metrics";
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<String, Counter>();
+
+    private Metrics() {
+    }
+
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    public static Timer timer(String name) {
+        return INSTANCE.timers.computeIfAbsent(name, Timer::new);
+    }
+
+    public static Counter counter(String name) {
+        return INSTANCE.counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Exposes the registry as the {@code com.snack:type=Metrics} MXBean; calling it again is harmless.
+     */
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        String formatText = "%-28s %10s %10s %10s %10s %10s %10s%n";
+        report.append(String.format(formatText, "Operation", "Count", "Mean(us)", "P50(us)", "P99(us)", "P99.9(us)", "Max(us)"));
+
+        for (Timer timer : new TreeMap<String, Timer>(timers).values()) {
+            LatencyHistogram histogram = timer.getHistogram();
+            long count = histogram.count();
+
+            report.append(String.format(formatText, timer.getName(), count,
+                    micros(count == 0 ? 0 : histogram.totalNanos() / count),
+                    micros(histogram.percentile(50)), micros(histogram.percentile(99)),
+                    micros(histogram.percentile(99.9)), micros(histogram.max())));
+        }
+
+        for (Counter counter : new TreeMap<String, Counter>(counters).values()) {
+            report.append(String.format("%-28s %10d%n", counter.getName(), counter.get()));
+        }
+
+        return report.toString();
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f", nanos / 1_000.0);
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        timers.forEach((name, timer) -> counts.put(name, timer.getHistogram().count()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getP99Nanos() {
+        Map<String, Long> p99 = new TreeMap<String, Long>();
+        timers.forEach((name, timer) -> p99.put(name, timer.getHistogram().percentile(99)));
+        return p99;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<String, Long>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    @Override
+    public void reset() {
+        timers.values().forEach(timer -> timer.getHistogram().reset());
+        counters.values().forEach(Counter::reset);
+    }
+}
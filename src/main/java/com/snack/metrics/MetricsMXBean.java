@@ -0,0 +1,17 @@
+package com.snack.metrics;
+
+import java.util.Map;
+
+public interface MetricsMXBean {
+    boolean isEnabled();
+
+    String getReport();
+
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getP99Nanos();
+
+    Map<String, Long> getCounters();
+
+    void reset();
+}
@@ -0,0 +1,40 @@
+package com.snack.metrics;
+
+/**
+ * Latency timer for one operation. Usage on a hot path:
+ * <pre>
+ * long start = TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     TIMER.stop(start);
+ * }
+ * </pre>
+ * When metrics are disabled both calls do nothing, not even read the clock.
+ */
+public final class Timer {
+    private final String name;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    Timer(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long start() {
+        return Metrics.ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public void stop(long start) {
+        if (Metrics.ENABLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+}
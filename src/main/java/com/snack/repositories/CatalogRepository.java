@@ -0,0 +1,97 @@
+package com.snack.repositories;
+
+import com.snack.entities.Cart;
+import com.snack.entities.Product;
+import com.snack.repositories.storage.CatalogSnapshot;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Product catalog as seen by {@code ProductApplication}. Unknown ids make {@link #getById(int)} and
+ * {@link #update(int, Product)} throw {@link java.util.NoSuchElementException}, and a taken id makes
+ * {@link #append(Product)} throw {@link IllegalArgumentException}. {@link RepositoryEngine} builds the
+ * implementations that ship with the application.
+ */
+public interface CatalogRepository extends AutoCloseable {
+    /**
+     * Returns a copy of the catalog in insertion order.
+     */
+    List<Product> getAll();
+
+    /**
+     * Lazily streams the products matching the filter, in insertion order, without copying the catalog.
+     */
+    Stream<Product> stream(ProductFilter filter);
+
+    /**
+     * Same as {@link #stream(ProductFilter)}, split across the common fork-join pool for large scans.
+     */
+    Stream<Product> parallelStream(ProductFilter filter);
+
+    /**
+     * Returns up to {@code pageSize} products matching the filter, in id order, resuming at {@code cursor}
+     * ({@link ProductPage#FIRST} for the first page). The cursor is the next id to scan, so removals never
+     * make a page skip a product, and products appended later show up on later pages when their id is past
+     * the cursor. Repositories with an ordered id index seek to the cursor; the others scan the catalog once
+     * per page, keeping only that page in memory.
+     */
+    ProductPage getPage(ProductFilter filter, long cursor, int pageSize);
+
+    Product getById(int id);
+
+    boolean exists(int id);
+
+    void append(Product product);
+
+    void remove(int id);
+
+    void update(int id, Product product);
+
+    void updateImage(int id, String image);
+
+    /**
+     * Returns the products found among {@code ids}, in the same order, skipping unknown ids.
+     */
+    List<Product> getByIds(List<Integer> ids);
+
+    /**
+     * Looks up the price of every line of the cart in one pass, with {@link Float#NaN} for unknown products.
+     */
+    float[] getPrices(Cart cart);
+
+    /**
+     * Appends the whole batch, or nothing if any id is already registered or repeated in the batch.
+     */
+    void appendAll(List<Product> batch);
+
+    /**
+     * Updates the whole batch, or nothing if any product is unknown.
+     */
+    void updateAll(List<Product> batch);
+
+    void removeAll(List<Integer> ids);
+
+    /**
+     * Products whose description starts with {@code prefix}, ignoring case, sorted by description.
+     */
+    List<Product> searchByDescriptionPrefix(String prefix);
+
+    /**
+     * Products whose description contains every word of {@code query}, ignoring case, sorted by id.
+     */
+    List<Product> searchByWords(String query);
+
+    /**
+     * Products priced in {@code [min, max]}, sorted by price.
+     */
+    List<Product> getByPriceRange(float min, float max);
+
+    CatalogSnapshot snapshot();
+
+    /**
+     * Releases files and threads held by the engine; in-memory engines hold none.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,57 @@
+package com.snack.repositories;
+
+import com.snack.entities.Product;
+
+import java.util.function.Predicate;
+
+/**
+ * Immutable filter for catalog scans. Each {@code with...} method returns a narrower copy, starting from
+ * {@link #ALL}.
+ */
+public final class ProductFilter implements Predicate<Product> {
+    public static final ProductFilter ALL = new ProductFilter(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, null);
+
+    private final float minPrice;
+    private final float maxPrice;
+    private final String descriptionPrefix;
+
+    private ProductFilter(float minPrice, float maxPrice, String descriptionPrefix) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.descriptionPrefix = descriptionPrefix;
+    }
+
+    /**
+     * Keeps products whose price lies in {@code [min, max]}.
+     */
+    public ProductFilter withPriceBetween(float min, float max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Minimum price " + min + " is greater than maximum " + max);
+        }
+        return new ProductFilter(min, max, descriptionPrefix);
+    }
+
+    /**
+     * Keeps products whose description starts with {@code prefix}, ignoring case.
+     */
+    public ProductFilter withDescriptionPrefix(String prefix) {
+        return new ProductFilter(minPrice, maxPrice, prefix);
+    }
+
+    @Override
+    public boolean test(Product product) {
+        float price = product.getPrice();
+
+        if (price < minPrice || price > maxPrice) {
+            return false;
+        }
+
+        if (descriptionPrefix == null) {
+            return true;
+        }
+
+        String description = product.getDescription();
+        return description != null
+                && description.regionMatches(true, 0, descriptionPrefix, 0, descriptionPrefix.length());
+    }
+}
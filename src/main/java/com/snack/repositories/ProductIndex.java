@@ -0,0 +1,202 @@
+package com.snack.repositories;
+
+import com.snack.entities.Product;
+import com.snack.repositories.storage.ProductStorage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Secondary indexes over the catalog: descriptions sorted case-insensitively for prefix search, an inverted
+ * index of description words and prices sorted for range queries.
+ * <p>
+ * The indexed values of every product are kept in {@code entries}, so stale keys can be removed without
+ * asking the storage for the old product. {@link #refresh(int, ProductStorage)} re-reads a product from the
+ * storage inside a per-id {@code compute}, so after concurrent writes to the same id the last refresh indexes
+ * whatever the storage ended up holding. Reads are lock-free and may miss writes still in flight.
+ * <p>
+ * The static {@code scan*} methods answer the same queries, with the same matches in the same order, by
+ * scanning the products, for repositories that do not keep an index.
+ */
+final class ProductIndex {
+    private static final Comparator<Key<String>> BY_TEXT =
+            Comparator.<Key<String>, String>comparing(Key::value).thenComparingInt(Key::id);
+    private static final Comparator<Key<Float>> BY_PRICE =
+            Comparator.<Key<Float>, Float>comparing(Key::value).thenComparingInt(Key::id);
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<Integer, Entry>();
+    private final ConcurrentSkipListSet<Key<String>> descriptions = new ConcurrentSkipListSet<Key<String>>(BY_TEXT);
+    private final ConcurrentHashMap<String, Set<Integer>> words = new ConcurrentHashMap<String, Set<Integer>>();
+    private final ConcurrentSkipListSet<Key<Float>> prices = new ConcurrentSkipListSet<Key<Float>>(BY_PRICE);
+
+    private record Key<T>(T value, int id) {
+    }
+
+    private record Entry(String description, float price) {
+    }
+
+    /**
+     * Re-indexes the product with the given id as currently stored, or drops it when it is no longer stored.
+     */
+    void refresh(int id, ProductStorage products) {
+        entries.compute(id, (key, old) -> replace(key, old, products.get(key)));
+    }
+
+    /**
+     * @return ids of the products whose description starts with {@code prefix}, ignoring case, sorted by
+     * description
+     */
+    List<Integer> descriptionPrefix(String prefix) {
+        String normalized = normalize(prefix);
+        NavigableSet<Key<String>> matches = descriptions.subSet(
+                new Key<String>(normalized, Integer.MIN_VALUE), true,
+                new Key<String>(normalized + Character.MAX_VALUE, Integer.MAX_VALUE), true);
+        return ids(matches);
+    }
+
+    /**
+     * @return ids, in ascending order, of the products whose description contains every word of the query
+     */
+    List<Integer> words(String query) {
+        List<Set<Integer>> postings = new ArrayList<Set<Integer>>();
+
+        for (String word : tokenize(query)) {
+            Set<Integer> ids = words.get(word);
+
+            if (ids == null) {
+                return new ArrayList<Integer>();
+            }
+            postings.add(ids);
+        }
+
+        if (postings.isEmpty()) {
+            return new ArrayList<Integer>();
+        }
+
+        postings.sort(Comparator.comparingInt(Set::size));
+        List<Integer> found = new ArrayList<Integer>();
+
+        for (Integer id : postings.get(0)) {
+            if (postings.stream().allMatch(ids -> ids.contains(id))) {
+                found.add(id);
+            }
+        }
+
+        return found;
+    }
+
+    /**
+     * @return ids of the products priced in {@code [min, max]}, sorted by price
+     */
+    List<Integer> priceRange(float min, float max) {
+        return ids(prices.subSet(new Key<Float>(min, Integer.MIN_VALUE), true, new Key<Float>(max, Integer.MAX_VALUE), true));
+    }
+
+    static List<Product> scanDescriptionPrefix(Spliterator<Product> products, String prefix) {
+        String normalized = normalize(prefix);
+        return StreamSupport.stream(products, false)
+                .filter(product -> product.getDescription() != null && normalize(product.getDescription()).startsWith(normalized))
+                .sorted(Comparator.<Product, String>comparing(product -> normalize(product.getDescription()))
+                        .thenComparingInt(Product::getId))
+                .collect(Collectors.toList());
+    }
+
+    static List<Product> scanWords(Spliterator<Product> products, String query) {
+        Set<String> tokens = tokenize(query);
+
+        if (tokens.isEmpty()) {
+            return new ArrayList<Product>();
+        }
+
+        return StreamSupport.stream(products, false)
+                .filter(product -> product.getDescription() != null && tokenize(product.getDescription()).containsAll(tokens))
+                .sorted(Comparator.comparingInt(Product::getId))
+                .collect(Collectors.toList());
+    }
+
+    static List<Product> scanPriceRange(Spliterator<Product> products, float min, float max) {
+        return StreamSupport.stream(products, false)
+                .filter(product -> Float.compare(product.getPrice(), min) >= 0 && Float.compare(product.getPrice(), max) <= 0)
+                .sorted(Comparator.<Product, Float>comparing(Product::getPrice).thenComparingInt(Product::getId))
+                .collect(Collectors.toList());
+    }
+
+    private Entry replace(int id, Entry old, Product product) {
+        if (old != null && product != null && old.equals(new Entry(product.getDescription(), product.getPrice()))) {
+            return old;
+        }
+
+        if (old != null) {
+            prices.remove(new Key<Float>(old.price(), id));
+
+            if (old.description() != null) {
+                descriptions.remove(new Key<String>(normalize(old.description()), id));
+
+                for (String word : tokenize(old.description())) {
+                    words.computeIfPresent(word, (key, ids) -> {
+                        ids.remove(id);
+                        return ids.isEmpty() ? null : ids;
+                    });
+                }
+            }
+        }
+
+        if (product == null) {
+            return null;
+        }
+
+        Entry entry = new Entry(product.getDescription(), product.getPrice());
+        prices.add(new Key<Float>(entry.price(), id));
+
+        if (entry.description() != null) {
+            descriptions.add(new Key<String>(normalize(entry.description()), id));
+
+            for (String word : tokenize(entry.description())) {
+                // add inside compute so it cannot race with the removal of an emptied posting set
+                words.compute(word, (key, ids) -> {
+                    Set<Integer> posting = ids != null ? ids : new ConcurrentSkipListSet<Integer>();
+                    posting.add(id);
+                    return posting;
+                });
+            }
+        }
+
+        return entry;
+    }
+
+    private static List<Integer> ids(Set<? extends Key<?>> keys) {
+        List<Integer> ids = new ArrayList<Integer>();
+
+        for (Key<?> key : keys) {
+            ids.add(key.id());
+        }
+
+        return ids;
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<String>();
+
+        for (String token : normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        return tokens;
+    }
+}
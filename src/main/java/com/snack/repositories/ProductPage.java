@@ -0,0 +1,19 @@
+package com.snack.repositories;
+
+import com.snack.entities.Product;
+
+import java.util.List;
+
+/**
+ * One page of a catalog scan in id order. Pass {@link #nextCursor()} to the next call to continue after this
+ * page; it is the id after the last one scanned, or {@link #END} once the scan has reached the end of the
+ * catalog.
+ */
+public record ProductPage(List<Product> products, long nextCursor) {
+    public static final long FIRST = Integer.MIN_VALUE;
+    public static final long END = Long.MAX_VALUE;
+
+    public boolean hasNext() {
+        return nextCursor != END;
+    }
+}
@@ -1,40 +1,375 @@
 package com.snack.repositories;
 
+import com.snack.entities.Cart;
 import com.snack.entities.Product;
+import com.snack.metrics.Metrics;
+import com.snack.metrics.Timer;
+import com.snack.repositories.storage.CatalogSnapshot;
+import com.snack.repositories.storage.HashProductStorage;
+import com.snack.repositories.storage.ProductStorage;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class ProductRepository {
-    private List<Product> products = new ArrayList<Product>();
+public class ProductRepository implements CatalogRepository {
+    private static final Timer GET_BY_ID = Metrics.timer("repository.getById");
+    private static final Timer EXISTS = Metrics.timer("repository.exists");
+    private static final Timer APPEND = Metrics.timer("repository.append");
+    private static final Timer REMOVE = Metrics.timer("repository.remove");
+    private static final Timer UPDATE = Metrics.timer("repository.update");
+    private static final Comparator<Product> BY_ID = Comparator.comparingInt(Product::getId);
 
+    private ProductStorage products;
+    private final boolean searchIndex;
+    // published before it is filled, so writes made while it is being built refresh it too
+    private volatile ProductIndex index;
+    private volatile boolean indexBuilt;
+    // ids in order for getPage with the search index, built on its first call; like the index, published
+    // before it is filled
+    private volatile NavigableSet<Integer> pageIds;
+    private volatile boolean pageIdsBuilt;
+
+    public ProductRepository() {
+        this(new HashProductStorage());
+    }
+
+    public ProductRepository(ProductStorage products) {
+        this(products, false);
+    }
+
+    /**
+     * @param searchIndex whether searches and pages use secondary indexes, kept on the heap and built from the
+     *                    storage on first use; without them every search and every page scans the storage
+     */
+    public ProductRepository(ProductStorage products, boolean searchIndex) {
+        this.products = products;
+        this.searchIndex = searchIndex;
+    }
+
+    @Override
     public List<Product> getAll() {
-        return products;
+        return products.values();
+    }
+
+    @Override
+    public Stream<Product> stream(ProductFilter filter) {
+        return StreamSupport.stream(products.spliterator(), false).filter(filter);
     }
 
+    @Override
+    public Stream<Product> parallelStream(ProductFilter filter) {
+        return StreamSupport.stream(products.spliterator(), true).filter(filter);
+    }
+
+    @Override
+    public ProductPage getPage(ProductFilter filter, long cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        if (cursor != ProductPage.END && (cursor < ProductPage.FIRST || cursor > Integer.MAX_VALUE + 1L)) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+        if (cursor > Integer.MAX_VALUE) {
+            return new ProductPage(new ArrayList<Product>(), ProductPage.END);
+        }
+        if (!searchIndex) {
+            return scanPage(filter, (int) cursor, pageSize);
+        }
+
+        Iterator<Integer> scan = pageIds().tailSet((int) cursor, true).iterator();
+        List<Product> page = new ArrayList<Product>(pageSize);
+        long next = ProductPage.END;
+
+        while (page.size() < pageSize && scan.hasNext()) {
+            int id = scan.next();
+            Product product = products.get(id);
+            next = id + 1L;
+
+            // ids of products removed concurrently may linger in the set; they are skipped
+            if (product != null && filter.test(product)) {
+                page.add(product);
+            }
+        }
+
+        return new ProductPage(page, scan.hasNext() ? next : ProductPage.END);
+    }
+
+    // keeps only the page, and one product more to tell whether there is a next page, out of a single scan
+    private ProductPage scanPage(ProductFilter filter, int from, int pageSize) {
+        PriorityQueue<Product> smallest = new PriorityQueue<Product>(BY_ID.reversed());
+
+        products.spliterator().forEachRemaining(product -> {
+            if (product.getId() >= from && filter.test(product)) {
+                smallest.add(product);
+                if (smallest.size() - 1 > pageSize) {
+                    smallest.poll();
+                }
+            }
+        });
+
+        boolean more = smallest.size() > pageSize;
+        if (more) {
+            smallest.poll();
+        }
+
+        List<Product> page = new ArrayList<Product>(smallest);
+        page.sort(BY_ID);
+        return new ProductPage(page, more ? page.get(page.size() - 1).getId() + 1L : ProductPage.END);
+    }
+
+    @Override
     public Product getById(int id) {
-        Product product = products.stream().filter(p -> p.getId() == id).findFirst().get();
+        long start = GET_BY_ID.start();
+        Product product;
+        try {
+            product = products.get(id);
+        } finally {
+            GET_BY_ID.stop(start);
+        }
+
+        if (product == null) {
+            throw new NoSuchElementException("No product with id " + id);
+        }
+
         return product;
     }
 
+    @Override
     public boolean exists(int id) {
-        return products.stream().anyMatch(p -> p.getId() == id);
+        long start = EXISTS.start();
+        try {
+            return products.contains(id);
+        } finally {
+            EXISTS.stop(start);
+        }
     }
 
+    @Override
     public void append(Product product) {
-        products.add(product);
+        long start = APPEND.start();
+        boolean added;
+        try {
+            added = products.add(product);
+        } finally {
+            APPEND.stop(start);
+        }
+
+        if (!added) {
+            throw new IllegalArgumentException("A product with id " + product.getId() + " already exists");
+        }
+
+        refreshIndex(product.getId());
     }
 
+    @Override
     public void remove(int id) {
-        products.removeIf(product -> product.getId() == id);
+        long start = REMOVE.start();
+        try {
+            products.remove(id);
+        } finally {
+            REMOVE.stop(start);
+        }
+        refreshIndex(id);
     }
 
+    @Override
     public void update(int id, Product product) {
-        Product productInDb = products.stream().filter(p -> p.getId() == id).findFirst().get();
+        long start = UPDATE.start();
+        boolean updated;
+        try {
+            updated = products.update(id, product);
+        } finally {
+            UPDATE.stop(start);
+        }
+
+        if (!updated) {
+            throw new NoSuchElementException("No product with id " + id);
+        }
+
+        refreshIndex(id);
+    }
+
+    @Override
+    public void updateImage(int id, String image) {
+        long start = UPDATE.start();
+        boolean updated;
+        try {
+            updated = products.updateImage(id, image);
+        } finally {
+            UPDATE.stop(start);
+        }
+
+        // the image is not indexed, so there is nothing to refresh
+        if (!updated) {
+            throw new NoSuchElementException("No product with id " + id);
+        }
+    }
+
+    @Override
+    public List<Product> getByIds(List<Integer> ids) {
+        List<Product> found = new ArrayList<Product>(ids.size());
+
+        for (int id : ids) {
+            Product product = products.get(id);
+            if (product != null) {
+                found.add(product);
+            }
+        }
+
+        return found;
+    }
+
+    @Override
+    public float[] getPrices(Cart cart) {
+        float[] prices = new float[cart.size()];
+
+        for (int line = 0; line < prices.length; line++) {
+            Product product = products.get(cart.productId(line));
+            prices[line] = product == null ? Float.NaN : product.getPrice();
+        }
+
+        return prices;
+    }
+
+    @Override
+    public void appendAll(List<Product> batch) {
+        Set<Integer> ids = new HashSet<Integer>();
+
+        for (Product product : batch) {
+            if (!ids.add(product.getId()) || products.contains(product.getId())) {
+                throw new IllegalArgumentException("A product with id " + product.getId() + " already exists");
+            }
+        }
+
+        products.addAll(batch);
+        refresh(batch);
+    }
+
+    @Override
+    public void updateAll(List<Product> batch) {
+        for (Product product : batch) {
+            if (!products.contains(product.getId())) {
+                throw new NoSuchElementException("No product with id " + product.getId());
+            }
+        }
+
+        products.updateAll(batch);
+        refresh(batch);
+    }
+
+    @Override
+    public void removeAll(List<Integer> ids) {
+        products.removeAll(ids);
+
+        for (int id : ids) {
+            refreshIndex(id);
+        }
+    }
+
+    @Override
+    public List<Product> searchByDescriptionPrefix(String prefix) {
+        if (!searchIndex) {
+            return ProductIndex.scanDescriptionPrefix(products.spliterator(), prefix);
+        }
+        return getByIds(index().descriptionPrefix(prefix));
+    }
+
+    @Override
+    public List<Product> searchByWords(String query) {
+        if (!searchIndex) {
+            return ProductIndex.scanWords(products.spliterator(), query);
+        }
+        return getByIds(index().words(query));
+    }
+
+    @Override
+    public List<Product> getByPriceRange(float min, float max) {
+        if (!searchIndex) {
+            return ProductIndex.scanPriceRange(products.spliterator(), min, max);
+        }
+        return getByIds(index().priceRange(min, max));
+    }
+
+    private ProductIndex index() {
+        if (!indexBuilt) {
+            synchronized (this) {
+                if (!indexBuilt) {
+                    ProductIndex building = new ProductIndex();
+                    index = building;
+                    // refresh re-reads each product, so one written or removed during the scan is indexed as stored
+                    products.spliterator().forEachRemaining(product -> building.refresh(product.getId(), products));
+                    indexBuilt = true;
+                }
+            }
+        }
+        return index;
+    }
+
+    private void refreshIndex(int id) {
+        ProductIndex current = index;
+
+        if (current != null) {
+            current.refresh(id, products);
+        }
+
+        NavigableSet<Integer> ids = pageIds;
+
+        if (ids != null) {
+            if (products.contains(id)) {
+                ids.add(id);
+            } else {
+                ids.remove(id);
+                // an append of the same id may have run between the storage check and the removal
+                if (products.contains(id)) {
+                    ids.add(id);
+                }
+            }
+        }
+    }
+
+    private NavigableSet<Integer> pageIds() {
+        if (!pageIdsBuilt) {
+            synchronized (this) {
+                if (!pageIdsBuilt) {
+                    NavigableSet<Integer> building = new ConcurrentSkipListSet<Integer>();
+                    pageIds = building;
+                    products.spliterator().forEachRemaining(product -> building.add(product.getId()));
+                    pageIdsBuilt = true;
+                }
+            }
+        }
+        return pageIds;
+    }
+
+    @Override
+    public void close() {
+        if (products instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) products).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not close " + products.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    private void refresh(List<Product> batch) {
+        for (Product product : batch) {
+            refreshIndex(product.getId());
+        }
+    }
 
-        productInDb.setDescription(product.getDescription());
-        productInDb.setPrice(product.getPrice());
-        productInDb.setImage(product.getImage());
+    @Override
+    public CatalogSnapshot snapshot() {
+        return products.snapshot();
     }
 }
@@ -0,0 +1,86 @@
+package com.snack.repositories;
+
+import com.snack.Settings;
+import com.snack.repositories.storage.ConcurrentProductStorage;
+import com.snack.repositories.storage.DurableProductStorage;
+import com.snack.repositories.storage.HashProductStorage;
+import com.snack.repositories.storage.ListProductStorage;
+import com.snack.repositories.storage.ProductStorage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Storage engines a {@link CatalogRepository} can run on. Chosen in code, or with {@link #fromEnvironment()}
+ * from system properties / environment variables:
+ * <ul>
+ *     <li>{@code snack.repository.engine} / {@code SNACK_REPOSITORY_ENGINE}: {@code list}, {@code indexed}
+ *     (default) or {@code persistent}</li>
+ *     <li>{@code snack.repository.dir} / {@code SNACK_REPOSITORY_DIR}: where the persistent engine keeps its
+ *     files, default {@code ~/SnackCatalog}</li>
+ *     <li>{@code snack.repository.searchIndex} / {@code SNACK_REPOSITORY_SEARCH_INDEX}: {@code true} to keep
+ *     in-memory search and paging indexes, default {@code false}</li>
+ * </ul>
+ */
+public enum RepositoryEngine {
+    /**
+     * Array list scanned on every lookup, the original implementation.
+     */
+    LIST {
+        @Override
+        ProductStorage storage(Path directory) {
+            return new ListProductStorage();
+        }
+    },
+    /**
+     * In-memory hash index keyed by id.
+     */
+    INDEXED {
+        @Override
+        ProductStorage storage(Path directory) {
+            return new HashProductStorage();
+        }
+    },
+    /**
+     * Write-ahead-logged storage that survives restarts, over a thread-safe in-memory index.
+     */
+    PERSISTENT {
+        @Override
+        ProductStorage storage(Path directory) throws IOException {
+            return new DurableProductStorage(directory, new ConcurrentProductStorage(),
+                    DurableProductStorage.Durability.SYNC, DurableProductStorage.DEFAULT_CHECKPOINT_BYTES);
+        }
+    };
+
+    abstract ProductStorage storage(Path directory) throws IOException;
+
+    /**
+     * @param directory where the engine keeps its files; ignored by the in-memory engines
+     */
+    public CatalogRepository open(Path directory) throws IOException {
+        return open(directory, false);
+    }
+
+    /**
+     * @param searchIndex whether searches and pages use in-memory indexes, built on first use, instead of
+     *                    scanning the storage
+     */
+    public CatalogRepository open(Path directory, boolean searchIndex) throws IOException {
+        return new ProductRepository(storage(directory), searchIndex);
+    }
+
+    public static RepositoryEngine fromEnvironment() {
+        return valueOf(Settings.get("snack.repository.engine", "SNACK_REPOSITORY_ENGINE", "indexed").toUpperCase(Locale.ROOT));
+    }
+
+    public static Path directoryFromEnvironment() {
+        return Paths.get(Settings.get("snack.repository.dir", "SNACK_REPOSITORY_DIR",
+                Paths.get(System.getProperty("user.home"), "SnackCatalog").toString()));
+    }
+
+    public static boolean searchIndexFromEnvironment() {
+        return Boolean.parseBoolean(Settings.get("snack.repository.searchIndex", "SNACK_REPOSITORY_SEARCH_INDEX", "false"));
+    }
+}
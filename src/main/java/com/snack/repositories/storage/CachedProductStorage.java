@@ -0,0 +1,182 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.entities.ProductRecord;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache in front of a slower storage. Lookups by id are served from a bounded cache of
+ * immutable records, handing out a new {@link Product} per hit; every write goes to the backend first and
+ * then invalidates the ids it touched. Scans ({@link #values()}, {@link #spliterator()}) go straight to the
+ * backend.
+ * <p>
+ * A lookup that missed only fills the cache if no write completed while it was reading the backend. Writers
+ * bump the write stamp after the backend write and in the same critical section as the invalidation, so a
+ * lookup that read the old value either fills the cache before the invalidation (which then drops it) or
+ * sees the new stamp and does not fill it at all.
+ */
+public class CachedProductStorage implements ProductStorage {
+    public enum Policy {
+        LRU,
+        TINY_LFU
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+    }
+
+    private final ProductStorage backend;
+    private final RecordCache cache;
+    private final AtomicLong writes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public CachedProductStorage(ProductStorage backend, Policy policy, int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+
+        this.backend = backend;
+        this.cache = policy == Policy.LRU ? new LruRecordCache(maximumSize) : new TinyLfuRecordCache(maximumSize);
+    }
+
+    @Override
+    public Product get(int id) {
+        ProductRecord record;
+
+        synchronized (cache) {
+            record = cache.get(id);
+        }
+
+        if (record != null) {
+            hits.increment();
+            return record.toProduct();
+        }
+
+        misses.increment();
+        long stamp = writes.get();
+        Product product = backend.get(id);
+
+        if (product != null) {
+            synchronized (cache) {
+                if (writes.get() == stamp) {
+                    cache.put(id, ProductRecord.of(product));
+                }
+            }
+        }
+
+        return product;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        synchronized (cache) {
+            if (cache.get(id) != null) {
+                return true;
+            }
+        }
+
+        return backend.contains(id);
+    }
+
+    @Override
+    public boolean add(Product product) {
+        boolean added = backend.add(product);
+        written(product.getId());
+        return added;
+    }
+
+    @Override
+    public Product remove(int id) {
+        Product removed = backend.remove(id);
+        written(id);
+        return removed;
+    }
+
+    @Override
+    public boolean update(int id, Product product) {
+        boolean updated = backend.update(id, product);
+        written(id);
+        return updated;
+    }
+
+    @Override
+    public boolean updateImage(int id, String image) {
+        boolean updated = backend.updateImage(id, image);
+        written(id);
+        return updated;
+    }
+
+    @Override
+    public void addAll(List<Product> products) {
+        backend.addAll(products);
+        writtenAll(products);
+    }
+
+    @Override
+    public void updateAll(List<Product> products) {
+        backend.updateAll(products);
+        writtenAll(products);
+    }
+
+    @Override
+    public void removeAll(List<Integer> ids) {
+        backend.removeAll(ids);
+
+        synchronized (cache) {
+            writes.incrementAndGet();
+            for (int id : ids) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return backend.size();
+    }
+
+    @Override
+    public List<Product> values() {
+        return backend.values();
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return backend.spliterator();
+    }
+
+    @Override
+    public CatalogSnapshot snapshot() {
+        return backend.snapshot();
+    }
+
+    public Stats stats() {
+        synchronized (cache) {
+            return new Stats(hits.sum(), misses.sum(), cache.evictions(), cache.size());
+        }
+    }
+
+    private void written(int id) {
+        synchronized (cache) {
+            writes.incrementAndGet();
+            cache.invalidate(id);
+        }
+    }
+
+    private void writtenAll(List<Product> products) {
+        synchronized (cache) {
+            writes.incrementAndGet();
+            for (Product product : products) {
+                cache.invalidate(product.getId());
+            }
+        }
+    }
+}
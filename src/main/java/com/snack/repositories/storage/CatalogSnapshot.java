@@ -0,0 +1,93 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+
+/**
+ * Immutable, versioned view of the whole catalog. Every write to a {@link SnapshotProductStorage} produces
+ * a new snapshot with the next version, so a reader holding one sees a consistent catalog for as long as
+ * it keeps the reference.
+ */
+public final class CatalogSnapshot {
+    public static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, new LinkedHashMap<Integer, ProductRecord>());
+
+    private final long version;
+    private final Map<Integer, ProductRecord> products;
+
+    private CatalogSnapshot(long version, LinkedHashMap<Integer, ProductRecord> products) {
+        this.version = version;
+        this.products = Collections.unmodifiableMap(products);
+    }
+
+    public static CatalogSnapshot copyOf(long version, List<ProductRecord> products) {
+        LinkedHashMap<Integer, ProductRecord> copy = new LinkedHashMap<Integer, ProductRecord>();
+
+        for (ProductRecord product : products) {
+            copy.put(product.id(), product);
+        }
+
+        return new CatalogSnapshot(version, copy);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public ProductRecord get(int id) {
+        return products.get(id);
+    }
+
+    public boolean contains(int id) {
+        return products.containsKey(id);
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    public List<ProductRecord> products() {
+        return new ArrayList<ProductRecord>(products.values());
+    }
+
+    Spliterator<ProductRecord> spliterator() {
+        return products.values().spliterator();
+    }
+
+    CatalogSnapshot with(ProductRecord product) {
+        LinkedHashMap<Integer, ProductRecord> copy = new LinkedHashMap<Integer, ProductRecord>(products);
+        copy.put(product.id(), product);
+        return new CatalogSnapshot(version + 1, copy);
+    }
+
+    CatalogSnapshot without(int id) {
+        LinkedHashMap<Integer, ProductRecord> copy = new LinkedHashMap<Integer, ProductRecord>(products);
+        copy.remove(id);
+        return new CatalogSnapshot(version + 1, copy);
+    }
+
+    CatalogSnapshot withAll(List<ProductRecord> changed) {
+        LinkedHashMap<Integer, ProductRecord> copy = new LinkedHashMap<Integer, ProductRecord>(products);
+
+        for (ProductRecord product : changed) {
+            copy.put(product.id(), product);
+        }
+
+        return new CatalogSnapshot(version + 1, copy);
+    }
+
+    CatalogSnapshot withoutAll(List<Integer> ids) {
+        LinkedHashMap<Integer, ProductRecord> copy = new LinkedHashMap<Integer, ProductRecord>(products);
+
+        for (int id : ids) {
+            copy.remove(id);
+        }
+
+        return new CatalogSnapshot(version + 1, copy);
+    }
+}
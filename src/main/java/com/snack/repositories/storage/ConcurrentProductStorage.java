@@ -0,0 +1,147 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe storage for many checkout terminals sharing one catalog.
+ * <p>
+ * Reads never take a lock: {@code get}/{@code contains} go through {@link ConcurrentHashMap} and
+ * {@code values} walks a weakly consistent skip list ordered by insertion sequence, so it never throws
+ * {@code ConcurrentModificationException}. Writes rely on the per-bin CAS/locking of the hash map.
+ * {@code update} never mutates a stored product: it publishes a fresh copy with a single volatile write,
+ * so readers see either the old or the new description/price/image, never a mix.
+ */
+public class ConcurrentProductStorage implements ProductStorage {
+    private final ConcurrentHashMap<Integer, Slot> index = new ConcurrentHashMap<Integer, Slot>();
+    private final ConcurrentSkipListMap<Long, Slot> order = new ConcurrentSkipListMap<Long, Slot>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public Product get(int id) {
+        Slot slot = index.get(id);
+        return slot == null ? null : slot.product;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return index.containsKey(id);
+    }
+
+    @Override
+    public boolean add(Product product) {
+        Slot slot = new Slot(sequence.incrementAndGet(), product);
+
+        if (index.putIfAbsent(product.getId(), slot) != null) {
+            return false;
+        }
+
+        order.put(slot.sequence, slot);
+
+        // a concurrent remove may have run between the two puts and missed the order entry
+        if (slot.removed) {
+            order.remove(slot.sequence);
+        }
+
+        return true;
+    }
+
+    @Override
+    public Product remove(int id) {
+        Slot slot = index.remove(id);
+
+        if (slot == null) {
+            return null;
+        }
+
+        slot.removed = true;
+        order.remove(slot.sequence);
+        return slot.product;
+    }
+
+    @Override
+    public boolean update(int id, Product product) {
+        Slot slot = index.get(id);
+
+        if (slot == null) {
+            return false;
+        }
+
+        slot.product = new Product(id, product.getDescription(), product.getPrice(), product.getImage());
+        return true;
+    }
+
+    @Override
+    public boolean updateImage(int id, String image) {
+        Slot slot = index.get(id);
+
+        if (slot == null) {
+            return false;
+        }
+
+        // retries if an update published another copy in between, so that one is not overwritten
+        while (true) {
+            Product current = slot.product;
+            Product changed = new Product(id, current.getDescription(), current.getPrice(), image);
+
+            if (Slot.PRODUCT.compareAndSet(slot, current, changed)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public List<Product> values() {
+        List<Product> products = new ArrayList<Product>();
+
+        for (Slot slot : order.values()) {
+            if (!slot.removed) {
+                products.add(slot.product);
+            }
+        }
+
+        return products;
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return order.values().stream()
+                .filter(slot -> !slot.removed)
+                .map(slot -> slot.product)
+                .spliterator();
+    }
+
+    private static final class Slot {
+        private static final VarHandle PRODUCT;
+
+        static {
+            try {
+                PRODUCT = MethodHandles.lookup().findVarHandle(Slot.class, "product", Product.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final long sequence;
+        private volatile Product product;
+        private volatile boolean removed;
+
+        private Slot(long sequence, Product product) {
+            this.sequence = sequence;
+            this.product = product;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Persistent storage: every change is applied to an in-memory storage and appended to a binary write-ahead
+ * log ({@code wal.log}) with group commit. {@link #checkpoint()} writes the whole catalog to
+ * {@code snapshot.bin} and empties the log; it also runs on its own once the log grows past
+ * {@code checkpointBytes}. On startup the snapshot is loaded and the log tail replayed on top of it.
+ * <p>
+ * Replaying a log over a snapshot that already contains its changes yields the same catalog (appends of
+ * present ids are ignored, updates and removes are idempotent), so a crash between writing the snapshot and
+ * emptying the log is harmless. A torn record at the end of the log is discarded.
+ * <p>
+ * Reads go straight to the in-memory storage; writes are serialized so the log order matches the order they
+ * were applied in, but with {@link Durability#SYNC} the wait for {@code fsync} happens outside that lock, so
+ * concurrent writers share syncs. Each change is appended to the log before it is applied, so a write the log
+ * refuses leaves the catalog as it was.
+ */
+public class DurableProductStorage implements ProductStorage, AutoCloseable {
+    public enum Durability {
+        /**
+         * A write returns once it has been synced to disk.
+         */
+        SYNC,
+        /**
+         * A write returns immediately; the log is synced in groups at least every few milliseconds, so a crash
+         * may lose the latest writes.
+         */
+        ASYNC
+    }
+
+    public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+
+    private static final int SNAPSHOT_MAGIC = 0x534E4B53;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final long ASYNC_COMMIT_DELAY_MILLIS = 5;
+    private static final byte APPEND = 1;
+    private static final byte UPDATE = 2;
+    private static final byte REMOVE = 3;
+
+    private final ProductStorage products;
+    private final Durability durability;
+    private final Path snapshotFile;
+    private final long checkpointBytes;
+    private final Object writeLock = new Object();
+    private final WriteAheadLog log;
+
+    public DurableProductStorage(Path directory) throws IOException {
+        this(directory, new ConcurrentProductStorage(), Durability.SYNC, DEFAULT_CHECKPOINT_BYTES);
+    }
+
+    public DurableProductStorage(Path directory, ProductStorage products, Durability durability, long checkpointBytes) throws IOException {
+        this.products = products;
+        this.durability = durability;
+        this.checkpointBytes = checkpointBytes;
+        this.snapshotFile = directory.resolve("snapshot.bin");
+
+        Files.createDirectories(directory);
+        Path logFile = directory.resolve("wal.log");
+        recover(logFile);
+        this.log = new WriteAheadLog(logFile, durability == Durability.SYNC ? 0 : ASYNC_COMMIT_DELAY_MILLIS);
+    }
+
+    @Override
+    public Product get(int id) {
+        return products.get(id);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return products.contains(id);
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public List<Product> values() {
+        return products.values();
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return products.spliterator();
+    }
+
+    @Override
+    public CatalogSnapshot snapshot() {
+        return products.snapshot();
+    }
+
+    @Override
+    public boolean add(Product product) {
+        long sequence;
+
+        synchronized (writeLock) {
+            if (products.contains(product.getId())) {
+                return false;
+            }
+            sequence = log.append(encode(APPEND, product));
+            products.add(product);
+        }
+
+        commit(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean update(int id, Product product) {
+        long sequence;
+
+        synchronized (writeLock) {
+            if (!products.contains(id)) {
+                return false;
+            }
+            sequence = log.append(encode(UPDATE, new Product(id, product.getDescription(), product.getPrice(), product.getImage())));
+            products.update(id, product);
+        }
+
+        commit(sequence);
+        return true;
+    }
+
+    @Override
+    public boolean updateImage(int id, String image) {
+        long sequence;
+
+        synchronized (writeLock) {
+            Product stored = products.get(id);
+            if (stored == null) {
+                return false;
+            }
+            sequence = log.append(encode(UPDATE, new Product(id, stored.getDescription(), stored.getPrice(), image)));
+            products.updateImage(id, image);
+        }
+
+        commit(sequence);
+        return true;
+    }
+
+    @Override
+    public Product remove(int id) {
+        Product removed;
+        long sequence;
+
+        synchronized (writeLock) {
+            if (!products.contains(id)) {
+                return null;
+            }
+            sequence = log.append(encodeRemove(id));
+            removed = products.remove(id);
+        }
+
+        commit(sequence);
+        return removed;
+    }
+
+    @Override
+    public void addAll(List<Product> batch) {
+        long sequence = 0;
+
+        synchronized (writeLock) {
+            for (Product product : batch) {
+                if (!products.contains(product.getId())) {
+                    sequence = log.append(encode(APPEND, product));
+                    products.add(product);
+                }
+            }
+        }
+
+        commit(sequence);
+    }
+
+    @Override
+    public void updateAll(List<Product> batch) {
+        long sequence = 0;
+
+        synchronized (writeLock) {
+            for (Product product : batch) {
+                if (products.contains(product.getId())) {
+                    sequence = log.append(encode(UPDATE, product));
+                    products.update(product.getId(), product);
+                }
+            }
+        }
+
+        commit(sequence);
+    }
+
+    @Override
+    public void removeAll(List<Integer> ids) {
+        long sequence = 0;
+
+        synchronized (writeLock) {
+            for (int id : ids) {
+                if (products.contains(id)) {
+                    sequence = log.append(encodeRemove(id));
+                    products.remove(id);
+                }
+            }
+        }
+
+        commit(sequence);
+    }
+
+    /**
+     * Writes the whole catalog to the snapshot file and empties the log.
+     */
+    public void checkpoint() throws IOException {
+        synchronized (writeLock) {
+            writeSnapshot(products.values());
+            log.truncate();
+        }
+    }
+
+    private void commit(long sequence) {
+        if (sequence == 0) {
+            return;
+        }
+
+        if (durability == Durability.SYNC) {
+            log.awaitDurable(sequence);
+        }
+
+        try {
+            // checked again under the lock, so writers that crossed the threshold together checkpoint once
+            if (log.size() > checkpointBytes) {
+                synchronized (writeLock) {
+                    if (log.size() > checkpointBytes) {
+                        checkpoint();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recover(Path logFile) throws IOException {
+        if (Files.exists(snapshotFile)) {
+            products.addAll(readSnapshot());
+        }
+
+        if (!Files.exists(logFile)) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long valid = WriteAheadLog.replay(channel, this::apply);
+
+            // drop a torn record left by a crash mid-write
+            if (valid < channel.size()) {
+                channel.truncate(valid);
+                channel.force(true);
+            }
+        }
+    }
+
+    private void apply(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte operation = in.readByte();
+
+        if (operation == REMOVE) {
+            products.remove(in.readInt());
+            return;
+        }
+
+        Product product = ProductCodec.read(in);
+
+        if (operation == APPEND) {
+            products.add(product);
+        } else if (operation == UPDATE) {
+            products.update(product.getId(), product);
+        } else {
+            throw new IOException("Unknown log operation " + operation);
+        }
+    }
+
+    private List<Product> readSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Not a product snapshot: " + snapshotFile);
+            }
+
+            int count = in.readInt();
+            List<Product> snapshot = new ArrayList<Product>(count);
+
+            for (int i = 0; i < count; i++) {
+                snapshot.add(ProductCodec.read(in));
+            }
+
+            return snapshot;
+        }
+    }
+
+    private void writeSnapshot(List<Product> catalog) throws IOException {
+        Path temp = snapshotFile.resolveSibling("snapshot.tmp");
+
+        try (FileOutputStream file = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(catalog.size());
+
+            for (Product product : catalog) {
+                ProductCodec.write(out, product);
+            }
+
+            out.flush();
+            file.getFD().sync();
+        }
+
+        try {
+            Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static byte[] encode(byte operation, Product product) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(operation);
+            ProductCodec.write(out, product);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] encodeRemove(int id) {
+        return new byte[]{REMOVE, (byte) (id >>> 24), (byte) (id >>> 16), (byte) (id >>> 8), (byte) id};
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
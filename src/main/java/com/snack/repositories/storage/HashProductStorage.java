@@ -0,0 +1,48 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+
+public class HashProductStorage implements ProductStorage {
+    private Map<Integer, Product> products = new LinkedHashMap<Integer, Product>();
+
+    @Override
+    public Product get(int id) {
+        return products.get(id);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return products.containsKey(id);
+    }
+
+    @Override
+    public boolean add(Product product) {
+        return products.putIfAbsent(product.getId(), product) == null;
+    }
+
+    @Override
+    public Product remove(int id) {
+        return products.remove(id);
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public List<Product> values() {
+        return new ArrayList<Product>(products.values());
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return products.values().spliterator();
+    }
+}
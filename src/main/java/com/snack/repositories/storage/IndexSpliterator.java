@@ -0,0 +1,62 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Spliterator over the positions {@code [index, end)} of an array-like storage. Positions that map to
+ * {@code null} (removed rows) are skipped, and the range is halved on every split so large scans can run in
+ * parallel.
+ */
+final class IndexSpliterator implements Spliterator<Product> {
+    private static final int MIN_SPLIT = 1024;
+
+    private final IntFunction<Product> rows;
+    private int index;
+    private final int end;
+
+    IndexSpliterator(IntFunction<Product> rows, int index, int end) {
+        this.rows = rows;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Product> action) {
+        while (index < end) {
+            Product product = rows.apply(index++);
+
+            if (product != null) {
+                action.accept(product);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public Spliterator<Product> trySplit() {
+        if (end - index < MIN_SPLIT) {
+            return null;
+        }
+
+        int middle = (index + end) >>> 1;
+        Spliterator<Product> prefix = new IndexSpliterator(rows, index, middle);
+        index = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -0,0 +1,208 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Open-addressing index keyed by the primitive product id.
+ * <p>
+ * Products live in two dense arrays ({@code ids} and {@code values}) in insertion order. The hash
+ * table only holds {@code denseIndex + 1} per slot (0 meaning empty) and uses linear probing with
+ * backward-shift deletion, so lookups never box the id nor allocate. Removed dense slots are left
+ * as holes and compacted once they outnumber the live products.
+ */
+public class IntHashProductStorage implements ProductStorage {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] table;
+    private int[] ids;
+    private Product[] values;
+    private int end;
+    private int size;
+
+    public IntHashProductStorage() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntHashProductStorage(int expectedSize) {
+        int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        this.table = new int[tableSizeFor(capacity)];
+        this.ids = new int[capacity];
+        this.values = new Product[capacity];
+    }
+
+    @Override
+    public Product get(int id) {
+        int slot = findSlot(id);
+        return slot < 0 ? null : values[table[slot] - 1];
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return findSlot(id) >= 0;
+    }
+
+    @Override
+    public boolean add(Product product) {
+        int id = product.getId();
+        int mask = table.length - 1;
+        int slot = hash(id) & mask;
+
+        while (table[slot] != 0) {
+            if (ids[table[slot] - 1] == id) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (end == ids.length) {
+            growDense();
+            // compaction may have moved entries around, so probe again on the rebuilt table
+            return add(product);
+        }
+
+        ids[end] = id;
+        values[end] = product;
+        table[slot] = ++end;
+        size++;
+
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+
+        return true;
+    }
+
+    @Override
+    public Product remove(int id) {
+        int slot = findSlot(id);
+
+        if (slot < 0) {
+            return null;
+        }
+
+        int dense = table[slot] - 1;
+        Product removed = values[dense];
+        values[dense] = null;
+        size--;
+        deleteSlot(slot);
+
+        if (end > DEFAULT_CAPACITY && size < end / 2) {
+            compact(ids.length);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Product> values() {
+        List<Product> products = new ArrayList<Product>(size);
+
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                products.add(values[i]);
+            }
+        }
+
+        return products;
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        Product[] rows = values;
+        return new IndexSpliterator(index -> rows[index], 0, end);
+    }
+
+    private int findSlot(int id) {
+        int mask = table.length - 1;
+        int slot = hash(id) & mask;
+
+        while (table[slot] != 0) {
+            if (ids[table[slot] - 1] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+
+        while (table[next] != 0) {
+            int home = hash(ids[table[next] - 1]) & mask;
+
+            // move the entry back if the hole lies on its probe path (cyclically between home and next)
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        table[hole] = 0;
+    }
+
+    private void growDense() {
+        if (size < end / 2) {
+            compact(ids.length);
+        } else {
+            compact(ids.length + (ids.length >> 1));
+        }
+    }
+
+    private void compact(int capacity) {
+        int[] newIds = new int[capacity];
+        Product[] newValues = new Product[capacity];
+        int j = 0;
+
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                newIds[j] = ids[i];
+                newValues[j] = values[i];
+                j++;
+            }
+        }
+
+        ids = newIds;
+        values = newValues;
+        end = j;
+        rehash(table.length);
+    }
+
+    private void rehash(int tableSize) {
+        table = new int[tableSize];
+        int mask = tableSize - 1;
+
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                int slot = hash(ids[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int n = Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1;
+        return Math.max(n, DEFAULT_CAPACITY * 2);
+    }
+}
@@ -0,0 +1,67 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * The original list-backed catalog: every lookup scans the list. Kept as the baseline the indexed storages
+ * are measured against, and for catalogs small enough that a scan is cheapest.
+ */
+public class ListProductStorage implements ProductStorage {
+    private List<Product> products = new ArrayList<Product>();
+
+    @Override
+    public Product get(int id) {
+        int index = indexOf(id);
+        return index < 0 ? null : products.get(index);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return indexOf(id) >= 0;
+    }
+
+    @Override
+    public boolean add(Product product) {
+        if (contains(product.getId())) {
+            return false;
+        }
+
+        products.add(product);
+        return true;
+    }
+
+    @Override
+    public Product remove(int id) {
+        int index = indexOf(id);
+        return index < 0 ? null : products.remove(index);
+    }
+
+    @Override
+    public int size() {
+        return products.size();
+    }
+
+    @Override
+    public List<Product> values() {
+        return new ArrayList<Product>(products);
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return products.spliterator();
+    }
+
+    private int indexOf(int id) {
+        for (int i = 0; i < products.size(); i++) {
+            if (products.get(i).getId() == id) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
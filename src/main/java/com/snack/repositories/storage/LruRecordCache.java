@@ -0,0 +1,52 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.ProductRecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Evicts the least recently used record once the cache holds {@code maximumSize} records.
+ */
+final class LruRecordCache implements RecordCache {
+    private final Map<Integer, ProductRecord> records;
+    private long evictions;
+
+    LruRecordCache(int maximumSize) {
+        this.records = new LinkedHashMap<Integer, ProductRecord>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ProductRecord> eldest) {
+                if (size() > maximumSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public ProductRecord get(int id) {
+        return records.get(id);
+    }
+
+    @Override
+    public void put(int id, ProductRecord record) {
+        records.put(id, record);
+    }
+
+    @Override
+    public void invalidate(int id) {
+        records.remove(id);
+    }
+
+    @Override
+    public int size() {
+        return records.size();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions;
+    }
+}
@@ -0,0 +1,176 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only catalog file served straight from a {@link MappedByteBuffer}.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   magic (int) | version (int) | count (int) | reserved (int)
+ * records  count x 24 bytes, in insertion order:
+ *          id (int) | price (float) | description offset, length (int, int) | image offset, length (int, int)
+ * index    count x 8 bytes sorted by id: id (int) | record number (int)
+ * pool     UTF-8 bytes of every description and image; a length of -1 stands for null
+ * </pre>
+ * Opening only maps the file and checks the header, so it takes the same time for any catalog size. Lookups
+ * binary-search the index in place; a {@link Product} is only built when one is asked for. The whole file must
+ * fit in a single mapping (2 GB).
+ */
+public final class MappedCatalog {
+    private static final int MAGIC = 0x534E4B4D;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 24;
+    private static final int INDEX_BYTES = 8;
+
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int indexStart;
+    private final int poolStart;
+
+    private MappedCatalog(MappedByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a mapped product catalog");
+        }
+
+        this.buffer = buffer;
+        this.count = buffer.getInt(8);
+        this.indexStart = HEADER_BYTES + count * RECORD_BYTES;
+        this.poolStart = indexStart + count * INDEX_BYTES;
+    }
+
+    public static MappedCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Catalog file is larger than 2 GB: " + file);
+            }
+            return new MappedCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes the products, which must have distinct ids, to a new catalog file that replaces {@code file}
+     * atomically.
+     */
+    public static void write(Path file, List<Product> products) throws IOException {
+        int count = products.size();
+        ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        long[] index = new long[count];
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(0);
+
+            for (int i = 0; i < count; i++) {
+                Product product = products.get(i);
+                out.writeInt(product.getId());
+                out.writeFloat(product.getPrice());
+                writeString(out, pool, product.getDescription());
+                writeString(out, pool, product.getImage());
+                index[i] = ((long) product.getId() << 32) | i;
+            }
+
+            Arrays.sort(index);
+            for (long entry : index) {
+                out.writeLong(entry);
+            }
+
+            pool.writeTo(out);
+            out.flush();
+            stream.getFD().sync();
+        }
+
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, ByteArrayOutputStream pool, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(0);
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(pool.size());
+        out.writeInt(bytes.length);
+        pool.write(bytes);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the record number of the product with the given id, or -1
+     */
+    public int find(int id) {
+        int low = 0;
+        int high = count - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int candidate = buffer.getInt(indexStart + middle * INDEX_BYTES);
+
+            if (candidate < id) {
+                low = middle + 1;
+            } else if (candidate > id) {
+                high = middle - 1;
+            } else {
+                return buffer.getInt(indexStart + middle * INDEX_BYTES + 4);
+            }
+        }
+
+        return -1;
+    }
+
+    public int id(int record) {
+        return buffer.getInt(HEADER_BYTES + record * RECORD_BYTES);
+    }
+
+    public float price(int record) {
+        return buffer.getFloat(HEADER_BYTES + record * RECORD_BYTES + 4);
+    }
+
+    public Product product(int record) {
+        int position = HEADER_BYTES + record * RECORD_BYTES;
+        return new Product(buffer.getInt(position), string(position + 8), buffer.getFloat(position + 4), string(position + 16));
+    }
+
+    private String string(int position) {
+        int offset = buffer.getInt(position);
+        int length = buffer.getInt(position + 4);
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(poolStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
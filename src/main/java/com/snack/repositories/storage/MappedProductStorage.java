@@ -0,0 +1,164 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Storage served from a {@link MappedCatalog} file, so startup does not depend on the catalog size.
+ * <p>
+ * Products are materialized from the mapping only when asked for. Changes made after opening are kept in
+ * memory on top of the file (appended products, updated and removed ids) until {@link #compact(Path)} writes
+ * a new catalog file. Like {@link HashProductStorage}, writes are not thread-safe.
+ */
+public class MappedProductStorage implements ProductStorage {
+    private final MappedCatalog catalog;
+    private final ProductStorage appended = new HashProductStorage();
+    private final Map<Integer, Product> updated = new HashMap<Integer, Product>();
+    private final Set<Integer> removed = new HashSet<Integer>();
+
+    public MappedProductStorage(MappedCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public static MappedProductStorage open(Path file) throws IOException {
+        return new MappedProductStorage(MappedCatalog.open(file));
+    }
+
+    @Override
+    public Product get(int id) {
+        Product product = appended.get(id);
+
+        if (product != null) {
+            return product;
+        }
+
+        int record = findInCatalog(id);
+
+        if (record < 0) {
+            return null;
+        }
+
+        product = updated.get(id);
+        return product != null ? product : catalog.product(record);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return appended.contains(id) || findInCatalog(id) >= 0;
+    }
+
+    @Override
+    public boolean add(Product product) {
+        return findInCatalog(product.getId()) < 0 && appended.add(product);
+    }
+
+    @Override
+    public Product remove(int id) {
+        Product product = appended.remove(id);
+
+        if (product != null) {
+            return product;
+        }
+
+        product = get(id);
+
+        if (product != null) {
+            removed.add(id);
+            updated.remove(id);
+        }
+
+        return product;
+    }
+
+    @Override
+    public boolean update(int id, Product product) {
+        if (appended.contains(id)) {
+            return appended.update(id, product);
+        }
+
+        if (findInCatalog(id) < 0) {
+            return false;
+        }
+
+        updated.put(id, new Product(id, product.getDescription(), product.getPrice(), product.getImage()));
+        return true;
+    }
+
+    @Override
+    public boolean updateImage(int id, String image) {
+        if (appended.contains(id)) {
+            return appended.updateImage(id, image);
+        }
+
+        Product product = get(id);
+
+        if (product == null) {
+            return false;
+        }
+
+        updated.put(id, new Product(id, product.getDescription(), product.getPrice(), image));
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return catalog.size() - removed.size() + appended.size();
+    }
+
+    @Override
+    public List<Product> values() {
+        List<Product> products = new ArrayList<Product>(size());
+
+        for (int record = 0; record < catalog.size(); record++) {
+            int id = catalog.id(record);
+
+            if (!removed.contains(id)) {
+                Product product = updated.get(id);
+                products.add(product != null ? product : catalog.product(record));
+            }
+        }
+
+        products.addAll(appended.values());
+        return products;
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        Spliterator<Product> mapped = new IndexSpliterator(record -> {
+            int id = catalog.id(record);
+
+            if (removed.contains(id)) {
+                return null;
+            }
+
+            Product product = updated.get(id);
+            return product != null ? product : catalog.product(record);
+        }, 0, catalog.size());
+
+        return Stream.concat(StreamSupport.stream(mapped, false), StreamSupport.stream(appended.spliterator(), false))
+                .spliterator();
+    }
+
+    /**
+     * Writes the current contents, including in-memory changes, to a new catalog file.
+     */
+    public void compact(Path file) throws IOException {
+        MappedCatalog.write(file, values());
+    }
+
+    private int findInCatalog(int id) {
+        int record = catalog.find(id);
+        return record < 0 || removed.contains(id) ? -1 : record;
+    }
+}
@@ -0,0 +1,286 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+/**
+ * Columnar storage kept in direct memory, so a large catalog adds almost nothing for the garbage collector
+ * to trace.
+ * <p>
+ * Each product is a row across four int-sized columns (id, price, description handle, image handle) and the
+ * strings are interned in a {@link StringArena}. The id index is the same open-addressing scheme as
+ * {@link IntHashProductStorage}, with its table off-heap too. Reads build a new {@link Product} from the
+ * columns, so changing a returned product does not change the storage. Like {@link HashProductStorage},
+ * it is not thread-safe.
+ */
+public class OffHeapProductStorage implements ProductStorage {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int REMOVED = -2;
+
+    private final StringArena strings = new StringArena();
+    private ByteBuffer ids;
+    private ByteBuffer prices;
+    private ByteBuffer descriptions;
+    private ByteBuffer images;
+    private ByteBuffer table;
+    private int tableSize;
+    private int capacity;
+    private int end;
+    private int size;
+
+    public OffHeapProductStorage() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public OffHeapProductStorage(int expectedSize) {
+        this.capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        this.ids = ByteBuffer.allocateDirect(capacity * 4);
+        this.prices = ByteBuffer.allocateDirect(capacity * 4);
+        this.descriptions = ByteBuffer.allocateDirect(capacity * 4);
+        this.images = ByteBuffer.allocateDirect(capacity * 4);
+        this.tableSize = tableSizeFor(capacity);
+        this.table = ByteBuffer.allocateDirect(tableSize * 4);
+    }
+
+    @Override
+    public Product get(int id) {
+        int slot = findSlot(id);
+        return slot < 0 ? null : product(table.getInt(slot * 4) - 1);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return findSlot(id) >= 0;
+    }
+
+    @Override
+    public boolean add(Product product) {
+        int id = product.getId();
+        int mask = tableSize - 1;
+        int slot = hash(id) & mask;
+        int entry;
+
+        while ((entry = table.getInt(slot * 4)) != 0) {
+            if (ids.getInt((entry - 1) * 4) == id) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (end == capacity) {
+            growRows();
+            // compaction may have moved rows around, so probe again on the rebuilt table
+            return add(product);
+        }
+
+        ids.putInt(end * 4, id);
+        write(end, product);
+        table.putInt(slot * 4, ++end);
+        size++;
+
+        if (size * 2 > tableSize) {
+            rehash(tableSize * 2);
+        }
+
+        return true;
+    }
+
+    @Override
+    public Product remove(int id) {
+        int slot = findSlot(id);
+
+        if (slot < 0) {
+            return null;
+        }
+
+        int row = table.getInt(slot * 4) - 1;
+        Product removed = product(row);
+        descriptions.putInt(row * 4, REMOVED);
+        size--;
+        deleteSlot(slot);
+
+        if (end > DEFAULT_CAPACITY && size < end / 2) {
+            compact(capacity);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public boolean update(int id, Product product) {
+        int slot = findSlot(id);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        write(table.getInt(slot * 4) - 1, product);
+        return true;
+    }
+
+    @Override
+    public boolean updateImage(int id, String image) {
+        int slot = findSlot(id);
+
+        if (slot < 0) {
+            return false;
+        }
+
+        images.putInt((table.getInt(slot * 4) - 1) * 4, strings.intern(image));
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<Product> values() {
+        List<Product> products = new ArrayList<Product>(size);
+
+        for (int row = 0; row < end; row++) {
+            if (isLive(row)) {
+                products.add(product(row));
+            }
+        }
+
+        return products;
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        // a compaction swaps the columns for new buffers, so the scan keeps reading the ones it started on
+        ByteBuffer ids = this.ids;
+        ByteBuffer prices = this.prices;
+        ByteBuffer descriptions = this.descriptions;
+        ByteBuffer images = this.images;
+
+        return new IndexSpliterator(row -> {
+            int description = descriptions.getInt(row * 4);
+            return description == REMOVED ? null : new Product(ids.getInt(row * 4), strings.get(description),
+                    prices.getFloat(row * 4), strings.get(images.getInt(row * 4)));
+        }, 0, end);
+    }
+
+    /**
+     * @return the direct memory held by the columns, the id index and the string arena, in bytes
+     */
+    public long offHeapBytes() {
+        return 4L * ids.capacity() + table.capacity() + strings.capacity();
+    }
+
+    private Product product(int row) {
+        return new Product(ids.getInt(row * 4), strings.get(descriptions.getInt(row * 4)),
+                prices.getFloat(row * 4), strings.get(images.getInt(row * 4)));
+    }
+
+    private void write(int row, Product product) {
+        prices.putFloat(row * 4, product.getPrice());
+        descriptions.putInt(row * 4, strings.intern(product.getDescription()));
+        images.putInt(row * 4, strings.intern(product.getImage()));
+    }
+
+    private boolean isLive(int row) {
+        return descriptions.getInt(row * 4) != REMOVED;
+    }
+
+    private int findSlot(int id) {
+        int mask = tableSize - 1;
+        int slot = hash(id) & mask;
+        int entry;
+
+        while ((entry = table.getInt(slot * 4)) != 0) {
+            if (ids.getInt((entry - 1) * 4) == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return -1;
+    }
+
+    private void deleteSlot(int slot) {
+        int mask = tableSize - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        int entry;
+
+        while ((entry = table.getInt(next * 4)) != 0) {
+            int home = hash(ids.getInt((entry - 1) * 4)) & mask;
+
+            // move the entry back if the hole lies on its probe path (cyclically between home and next)
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                table.putInt(hole * 4, entry);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+
+        table.putInt(hole * 4, 0);
+    }
+
+    private void growRows() {
+        if (size < end / 2) {
+            compact(capacity);
+        } else {
+            compact(capacity + (capacity >> 1));
+        }
+    }
+
+    private void compact(int newCapacity) {
+        ByteBuffer newIds = ByteBuffer.allocateDirect(newCapacity * 4);
+        ByteBuffer newPrices = ByteBuffer.allocateDirect(newCapacity * 4);
+        ByteBuffer newDescriptions = ByteBuffer.allocateDirect(newCapacity * 4);
+        ByteBuffer newImages = ByteBuffer.allocateDirect(newCapacity * 4);
+        int j = 0;
+
+        for (int row = 0; row < end; row++) {
+            if (isLive(row)) {
+                newIds.putInt(j * 4, ids.getInt(row * 4));
+                newPrices.putFloat(j * 4, prices.getFloat(row * 4));
+                newDescriptions.putInt(j * 4, descriptions.getInt(row * 4));
+                newImages.putInt(j * 4, images.getInt(row * 4));
+                j++;
+            }
+        }
+
+        ids = newIds;
+        prices = newPrices;
+        descriptions = newDescriptions;
+        images = newImages;
+        capacity = newCapacity;
+        end = j;
+        rehash(tableSize);
+    }
+
+    private void rehash(int newSize) {
+        table = ByteBuffer.allocateDirect(newSize * 4);
+        tableSize = newSize;
+        int mask = newSize - 1;
+
+        for (int row = 0; row < end; row++) {
+            if (isLive(row)) {
+                int slot = hash(ids.getInt(row * 4)) & mask;
+                while (table.getInt(slot * 4) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.putInt(slot * 4, row + 1);
+            }
+        }
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int n = Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1;
+        return Math.max(n, DEFAULT_CAPACITY * 2);
+    }
+}
@@ -0,0 +1,55 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary encoding of a product shared by the write-ahead log and the snapshot files:
+ * {@code id (int), price (float), description, image}, strings as a length-prefixed UTF-8 with -1 for null.
+ */
+final class ProductCodec {
+    private ProductCodec() {
+    }
+
+    static void write(DataOutput out, Product product) throws IOException {
+        out.writeInt(product.getId());
+        out.writeFloat(product.getPrice());
+        writeString(out, product.getDescription());
+        writeString(out, product.getImage());
+    }
+
+    static Product read(DataInput in) throws IOException {
+        int id = in.readInt();
+        float price = in.readFloat();
+        String description = readString(in);
+        String image = readString(in);
+        return new Product(id, description, price, image);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
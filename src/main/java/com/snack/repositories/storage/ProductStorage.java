@@ -0,0 +1,112 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.entities.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+public interface ProductStorage {
+    Product get(int id);
+
+    boolean contains(int id);
+
+    /**
+     * Stores the product unless its id is already taken.
+     *
+     * @return false when a product with the same id is already stored
+     */
+    boolean add(Product product);
+
+    Product remove(int id);
+
+    /**
+     * Copies description, price and image of {@code product} into the stored product with the given id.
+     *
+     * @return false when no product with that id is stored
+     */
+    default boolean update(int id, Product product) {
+        Product stored = get(id);
+
+        if (stored == null) {
+            return false;
+        }
+
+        stored.setDescription(product.getDescription());
+        stored.setPrice(product.getPrice());
+        stored.setImage(product.getImage());
+        return true;
+    }
+
+    /**
+     * Replaces only the image of the stored product with the given id, as one write, so a concurrent
+     * {@link #update(int, Product)} is never undone by it.
+     *
+     * @return false when no product with that id is stored
+     */
+    default boolean updateImage(int id, String image) {
+        Product stored = get(id);
+
+        if (stored == null) {
+            return false;
+        }
+
+        stored.setImage(image);
+        return true;
+    }
+
+    /**
+     * Adds every product whose id is not already taken.
+     */
+    default void addAll(List<Product> products) {
+        for (Product product : products) {
+            add(product);
+        }
+    }
+
+    /**
+     * Updates every product that is already stored, keyed by its own id.
+     */
+    default void updateAll(List<Product> products) {
+        for (Product product : products) {
+            update(product.getId(), product);
+        }
+    }
+
+    default void removeAll(List<Integer> ids) {
+        for (int id : ids) {
+            remove(id);
+        }
+    }
+
+    int size();
+
+    /**
+     * Returns a copy of the stored products in insertion order.
+     */
+    List<Product> values();
+
+    /**
+     * Returns a spliterator over the stored products in insertion order that reads the storage lazily, so a
+     * scan does not copy the catalog. Thread-safe storages tolerate writes made while it is traversed. The
+     * default one iterates over a copy of {@link #values()}.
+     */
+    default Spliterator<Product> spliterator() {
+        return values().spliterator();
+    }
+
+    /**
+     * Returns an immutable view of the catalog. Storages that do not version their contents return an
+     * unversioned (version 0) copy of {@link #values()}.
+     */
+    default CatalogSnapshot snapshot() {
+        List<ProductRecord> records = new ArrayList<ProductRecord>();
+
+        for (Product product : values()) {
+            records.add(ProductRecord.of(product));
+        }
+
+        return CatalogSnapshot.copyOf(0, records);
+    }
+}
@@ -0,0 +1,19 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.ProductRecord;
+
+/**
+ * Size-bounded map from product id to record behind {@link CachedProductStorage}. Implementations are not
+ * thread-safe; the storage calls them under its own lock.
+ */
+interface RecordCache {
+    ProductRecord get(int id);
+
+    void put(int id, ProductRecord record);
+
+    void invalidate(int id);
+
+    int size();
+
+    long evictions();
+}
@@ -0,0 +1,174 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.entities.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.StreamSupport;
+
+/**
+ * Copy-on-write storage: the catalog is an immutable {@link CatalogSnapshot} swapped in with a CAS on
+ * every write. Readers never lock and never observe a half-applied update; writes cost a copy of the
+ * catalog, so this suits read-mostly catalogs.
+ * <p>
+ * Products handed out by {@code get}/{@code values} are fresh copies, so mutating them does not touch
+ * the stored state.
+ */
+public class SnapshotProductStorage implements ProductStorage {
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<CatalogSnapshot>(CatalogSnapshot.EMPTY);
+
+    @Override
+    public Product get(int id) {
+        ProductRecord product = current.get().get(id);
+        return product == null ? null : product.toProduct();
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return current.get().contains(id);
+    }
+
+    @Override
+    public boolean add(Product product) {
+        ProductRecord record = ProductRecord.of(product);
+
+        while (true) {
+            CatalogSnapshot snapshot = current.get();
+
+            if (snapshot.contains(record.id())) {
+                return false;
+            }
+            if (current.compareAndSet(snapshot, snapshot.with(record))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Product remove(int id) {
+        while (true) {
+            CatalogSnapshot snapshot = current.get();
+            ProductRecord removed = snapshot.get(id);
+
+            if (removed == null) {
+                return null;
+            }
+            if (current.compareAndSet(snapshot, snapshot.without(id))) {
+                return removed.toProduct();
+            }
+        }
+    }
+
+    @Override
+    public boolean update(int id, Product product) {
+        ProductRecord record = new ProductRecord(id, product.getDescription(), product.getPrice(), product.getImage());
+
+        while (true) {
+            CatalogSnapshot snapshot = current.get();
+
+            if (!snapshot.contains(id)) {
+                return false;
+            }
+            if (current.compareAndSet(snapshot, snapshot.with(record))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean updateImage(int id, String image) {
+        while (true) {
+            CatalogSnapshot snapshot = current.get();
+            ProductRecord record = snapshot.get(id);
+
+            if (record == null) {
+                return false;
+            }
+
+            ProductRecord changed = new ProductRecord(id, record.description(), record.price(), image);
+            if (current.compareAndSet(snapshot, snapshot.with(changed))) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void addAll(List<Product> products) {
+        applyAll(products, false);
+    }
+
+    @Override
+    public void updateAll(List<Product> products) {
+        applyAll(products, true);
+    }
+
+    @Override
+    public void removeAll(List<Integer> ids) {
+        while (true) {
+            CatalogSnapshot snapshot = current.get();
+            List<Integer> present = new ArrayList<Integer>();
+
+            for (int id : ids) {
+                if (snapshot.contains(id)) {
+                    present.add(id);
+                }
+            }
+            if (present.isEmpty() || current.compareAndSet(snapshot, snapshot.withoutAll(present))) {
+                return;
+            }
+        }
+    }
+
+    // applies the whole batch with a single copy of the catalog instead of one per product
+    private void applyAll(List<Product> products, boolean existing) {
+        while (true) {
+            CatalogSnapshot snapshot = current.get();
+            Map<Integer, ProductRecord> changed = new LinkedHashMap<Integer, ProductRecord>();
+
+            for (Product product : products) {
+                int id = product.getId();
+                if (snapshot.contains(id) == existing && (existing || !changed.containsKey(id))) {
+                    changed.put(id, ProductRecord.of(product));
+                }
+            }
+            if (changed.isEmpty()
+                    || current.compareAndSet(snapshot, snapshot.withAll(new ArrayList<ProductRecord>(changed.values())))) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return current.get().size();
+    }
+
+    @Override
+    public List<Product> values() {
+        List<ProductRecord> records = current.get().products();
+        List<Product> products = new ArrayList<Product>(records.size());
+
+        for (ProductRecord record : records) {
+            products.add(record.toProduct());
+        }
+
+        return products;
+    }
+
+    @Override
+    public Spliterator<Product> spliterator() {
+        return StreamSupport.stream(current.get().spliterator(), false)
+                .map(ProductRecord::toProduct)
+                .spliterator();
+    }
+
+    @Override
+    public CatalogSnapshot snapshot() {
+        return current.get();
+    }
+}
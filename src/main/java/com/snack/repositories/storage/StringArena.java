@@ -0,0 +1,132 @@
+package com.snack.repositories.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Append-only arena of interned UTF-8 strings in direct memory.
+ * <p>
+ * Each entry is {@code hash (int) | length (int) | bytes} and is referred to by its offset (the handle). Equal
+ * strings share one entry, found through an open-addressing table that is also kept off-heap. Entries are
+ * never freed, so the arena grows with the number of distinct strings ever stored.
+ */
+final class StringArena {
+    static final int NULL = -1;
+
+    private static final int ENTRY_HEADER = 8;
+
+    private ByteBuffer bytes = ByteBuffer.allocateDirect(1024);
+    private ByteBuffer table = ByteBuffer.allocateDirect(64 * 4);
+    private int tableSize = 64;
+    private int end;
+    private int count;
+
+    int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int hash = value.hashCode();
+        int mask = tableSize - 1;
+        int slot = spread(hash) & mask;
+        int entry;
+
+        while ((entry = table.getInt(slot * 4)) != 0) {
+            if (matches(entry - 1, hash, utf8)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int handle = append(hash, utf8);
+        table.putInt(slot * 4, handle + 1);
+
+        if (++count * 2 > tableSize) {
+            rehash(tableSize * 2);
+        }
+
+        return handle;
+    }
+
+    String get(int handle) {
+        if (handle == NULL) {
+            return null;
+        }
+
+        byte[] utf8 = new byte[bytes.getInt(handle + 4)];
+        bytes.get(handle + ENTRY_HEADER, utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the direct memory held by the arena and its table, in bytes
+     */
+    long capacity() {
+        return (long) bytes.capacity() + table.capacity();
+    }
+
+    private boolean matches(int handle, int hash, byte[] utf8) {
+        if (bytes.getInt(handle) != hash || bytes.getInt(handle + 4) != utf8.length) {
+            return false;
+        }
+
+        for (int i = 0; i < utf8.length; i++) {
+            if (bytes.get(handle + ENTRY_HEADER + i) != utf8[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int append(int hash, byte[] utf8) {
+        int needed = end + ENTRY_HEADER + utf8.length;
+
+        if (needed < 0) {
+            throw new IllegalStateException("String arena is full");
+        }
+
+        if (needed > bytes.capacity()) {
+            bytes = grow(bytes, (int) Math.min(Integer.MAX_VALUE, Math.max(needed, (long) bytes.capacity() * 2)));
+        }
+
+        int handle = end;
+        bytes.putInt(handle, hash);
+        bytes.putInt(handle + 4, utf8.length);
+        bytes.put(handle + ENTRY_HEADER, utf8);
+        end = needed;
+        return handle;
+    }
+
+    private void rehash(int newSize) {
+        ByteBuffer newTable = ByteBuffer.allocateDirect(newSize * 4);
+        int mask = newSize - 1;
+
+        for (int slot = 0; slot < tableSize; slot++) {
+            int entry = table.getInt(slot * 4);
+
+            if (entry != 0) {
+                int target = spread(bytes.getInt(entry - 1)) & mask;
+                while (newTable.getInt(target * 4) != 0) {
+                    target = (target + 1) & mask;
+                }
+                newTable.putInt(target * 4, entry);
+            }
+        }
+
+        table = newTable;
+        tableSize = newSize;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(0, buffer, 0, buffer.capacity());
+        return grown;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
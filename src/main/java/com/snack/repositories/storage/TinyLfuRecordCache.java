@@ -0,0 +1,191 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.ProductRecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * W-TinyLFU: new records enter a small LRU window (1% of the capacity); a record leaving the window only
+ * replaces the next victim of the main segmented LRU if a frequency sketch says it is requested more often.
+ * One-off lookups therefore cannot flush the popular products out of the cache. The main region is split
+ * into probation (20%) and protected (80%); a hit in probation promotes the record to protected.
+ */
+final class TinyLfuRecordCache implements RecordCache {
+    private final int windowSize;
+    private final int protectedSize;
+    private final int mainSize;
+    private final FrequencySketch sketch;
+    private final LinkedHashMap<Integer, ProductRecord> window = new LinkedHashMap<Integer, ProductRecord>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, ProductRecord> probation = new LinkedHashMap<Integer, ProductRecord>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, ProductRecord> protectedRegion = new LinkedHashMap<Integer, ProductRecord>(16, 0.75f, true);
+    private long evictions;
+
+    TinyLfuRecordCache(int maximumSize) {
+        this.windowSize = Math.max(1, maximumSize / 100);
+        this.mainSize = Math.max(1, maximumSize - windowSize);
+        this.protectedSize = mainSize * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public ProductRecord get(int id) {
+        sketch.increment(id);
+        ProductRecord record = window.get(id);
+
+        if (record != null) {
+            return record;
+        }
+
+        record = probation.remove(id);
+
+        if (record != null) {
+            protectedRegion.put(id, record);
+
+            if (protectedRegion.size() > protectedSize) {
+                Map.Entry<Integer, ProductRecord> demoted = eldest(protectedRegion);
+                protectedRegion.remove(demoted.getKey());
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+            return record;
+        }
+
+        return protectedRegion.get(id);
+    }
+
+    @Override
+    public void put(int id, ProductRecord record) {
+        if (window.containsKey(id)) {
+            window.put(id, record);
+            return;
+        }
+        if (probation.containsKey(id)) {
+            probation.put(id, record);
+            return;
+        }
+        if (protectedRegion.containsKey(id)) {
+            protectedRegion.put(id, record);
+            return;
+        }
+
+        window.put(id, record);
+
+        if (window.size() > windowSize) {
+            Map.Entry<Integer, ProductRecord> candidate = eldest(window);
+            window.remove(candidate.getKey());
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private void admit(int id, ProductRecord record) {
+        if (probation.size() + protectedRegion.size() < mainSize) {
+            probation.put(id, record);
+            return;
+        }
+
+        LinkedHashMap<Integer, ProductRecord> victims = probation.isEmpty() ? protectedRegion : probation;
+        Map.Entry<Integer, ProductRecord> victim = eldest(victims);
+        evictions++;
+
+        if (sketch.frequency(id) > sketch.frequency(victim.getKey())) {
+            victims.remove(victim.getKey());
+            probation.put(id, record);
+        }
+    }
+
+    @Override
+    public void invalidate(int id) {
+        if (window.remove(id) == null && probation.remove(id) == null) {
+            protectedRegion.remove(id);
+        }
+    }
+
+    @Override
+    public int size() {
+        return window.size() + probation.size() + protectedRegion.size();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions;
+    }
+
+    private static Map.Entry<Integer, ProductRecord> eldest(LinkedHashMap<Integer, ProductRecord> region) {
+        return region.entrySet().iterator().next();
+    }
+
+    /**
+     * Count-min sketch of 4-bit counters, four per id, halved every {@code 10 x maximumSize} increments so
+     * that old popularity fades.
+     */
+    static final class FrequencySketch {
+        private static final long[] SEEDS = {0x97CB3127L, 0xB492B66FL, 0x9AE16A3BL, 0xC3A5C85CL};
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            // one long (16 counters) per cached record keeps collisions rare between two halvings
+            this.table = new long[Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 1];
+            this.mask = table.length - 1;
+            this.sampleSize = 10 * Math.max(1, maximumSize);
+        }
+
+        int frequency(int id) {
+            int frequency = Integer.MAX_VALUE;
+
+            for (int i = 0; i < 4; i++) {
+                frequency = Math.min(frequency, counter(id, i));
+            }
+
+            return frequency;
+        }
+
+        void increment(int id) {
+            boolean added = false;
+
+            for (int i = 0; i < 4; i++) {
+                int index = index(id, i);
+                int shift = shift(id, i);
+
+                if (((table[index] >>> shift) & 0xF) < 15) {
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions == sampleSize) {
+                reset();
+            }
+        }
+
+        private void reset() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+            }
+            additions /= 2;
+        }
+
+        private int counter(int id, int row) {
+            return (int) ((table[index(id, row)] >>> shift(id, row)) & 0xF);
+        }
+
+        private int index(int id, int row) {
+            long h = (id + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & mask;
+        }
+
+        private static int shift(int id, int row) {
+            // each long holds 16 counters; every row uses its own group of four
+            return ((row << 2) + (spread(id) & 3)) << 2;
+        }
+
+        private static int spread(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.snack.repositories.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary log with group commit.
+ * <p>
+ * Each record is framed as {@code length (int), crc32 (int), payload}. Writers only copy their record into
+ * an in-memory buffer; a single flusher thread writes whatever has accumulated and issues one {@code fsync}
+ * for the whole group, so concurrent writers share the cost of a sync. {@link #awaitDurable(long)} blocks
+ * until a given record has been synced.
+ */
+class WriteAheadLog implements AutoCloseable {
+    private static final int HEADER_BYTES = 8;
+
+    private final FileChannel channel;
+    private final long maxDelayNanos;
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private ByteArrayOutputStream flushing = new ByteArrayOutputStream();
+    private long appended;
+    private long durable;
+    private IOException failure;
+    private boolean closed;
+    private final Thread flusher;
+
+    /**
+     * @param maxDelayMillis how long the flusher may wait to let a group grow before syncing; 0 syncs as
+     *                       soon as a record arrives
+     */
+    WriteAheadLog(Path file, long maxDelayMillis) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.channel.position(channel.size());
+        this.maxDelayNanos = maxDelayMillis * 1_000_000L;
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Queues a record and returns its sequence number.
+     */
+    long append(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        synchronized (lock) {
+            checkFailure();
+            if (closed) {
+                throw new IllegalStateException("The write-ahead log is closed");
+            }
+            boolean first = pending.size() == 0;
+            writeInt(pending, payload.length);
+            writeInt(pending, (int) crc.getValue());
+            pending.write(payload, 0, payload.length);
+            appended++;
+            if (first) {
+                // only the record that opens a group needs to wake the flusher
+                lock.notifyAll();
+            }
+            return appended;
+        }
+    }
+
+    void awaitDurable(long sequence) {
+        synchronized (lock) {
+            while (durable < sequence) {
+                checkFailure();
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the log to sync", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Syncs everything appended so far and empties the log. The caller must make sure no append runs
+     * concurrently, i.e. the state the log described has been saved elsewhere.
+     */
+    void truncate() throws IOException {
+        awaitDurable(appendedSequence());
+
+        synchronized (lock) {
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+        }
+    }
+
+    long size() throws IOException {
+        return channel.size();
+    }
+
+    private long appendedSequence() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    private void flushLoop() {
+        try {
+            while (true) {
+                long target;
+                ByteArrayOutputStream batch;
+
+                synchronized (lock) {
+                    while (pending.size() == 0 && !closed) {
+                        lock.wait();
+                    }
+                    if (pending.size() == 0 && closed) {
+                        return;
+                    }
+                    // let more writers join this group; wakeups before the deadline do not end the window
+                    long deadline = System.nanoTime() + maxDelayNanos;
+                    long remaining;
+                    while (!closed && (remaining = deadline - System.nanoTime()) > 0) {
+                        lock.wait(remaining / 1_000_000L, (int) (remaining % 1_000_000L));
+                    }
+                    batch = pending;
+                    pending = flushing;
+                    flushing = batch;
+                    target = appended;
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+                batch.reset();
+
+                synchronized (lock) {
+                    durable = target;
+                    lock.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("The write-ahead log can no longer be written", failure);
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /**
+     * Reads the valid records of a log file, stopping at the first torn or corrupt one.
+     *
+     * @return the length of the valid prefix of the file
+     */
+    static long replay(FileChannel channel, RecordHandler handler) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        long position = 0;
+        long size = channel.size();
+
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, position + HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            handler.accept(payload.array());
+            position += HEADER_BYTES + length;
+        }
+
+        return position;
+    }
+
+    interface RecordHandler {
+        void accept(byte[] payload) throws IOException;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        channel.close();
+    }
+}
@@ -0,0 +1,9 @@
+package com.snack.sales;
+
+/**
+ * Sales recorded during one wall-clock minute.
+ *
+ * @param minute minutes since the epoch
+ */
+public record MinuteSales(long minute, long units, long revenueCents) {
+}
@@ -0,0 +1,7 @@
+package com.snack.sales;
+
+/**
+ * Units sold and revenue of one product since the ledger was created.
+ */
+public record ProductSales(int productId, long units, long revenueCents) {
+}
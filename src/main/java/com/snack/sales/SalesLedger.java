@@ -0,0 +1,183 @@
+package com.snack.sales;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Running totals of every sale, per product and per minute.
+ * <p>
+ * All counters are {@link LongAdder}s, which spread concurrent additions over per-thread cells, so recording
+ * never takes a lock and threads selling the same product do not fight over one memory word. A product's
+ * counters are created on its first sale and afterwards found without locking. Minutes live in a ring of
+ * {@code minutes} buckets; the first sale of a new minute swaps the oldest bucket for a fresh one with a single
+ * compare-and-set. Totals per product and per minute are read in constant time; the overall totals and
+ * {@link #topSellers(int)} scan the products once.
+ */
+public final class SalesLedger {
+    public static final int DEFAULT_MINUTES = 60;
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    private final ConcurrentHashMap<Integer, Counters> products = new ConcurrentHashMap<Integer, Counters>();
+    private final AtomicReferenceArray<Bucket> buckets;
+    private final LongSupplier clock;
+
+    private static class Counters {
+        final LongAdder units = new LongAdder();
+        final LongAdder cents = new LongAdder();
+    }
+
+    private static final class Bucket extends Counters {
+        final long minute;
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    public SalesLedger() {
+        this(DEFAULT_MINUTES, System::currentTimeMillis);
+    }
+
+    /**
+     * @param minutes how many of the latest minutes {@link #minute(long)} can answer for
+     * @param clock   wall-clock time in milliseconds
+     */
+    public SalesLedger(int minutes, LongSupplier clock) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("Minutes must be positive: " + minutes);
+        }
+
+        this.buckets = new AtomicReferenceArray<Bucket>(minutes);
+        this.clock = clock;
+    }
+
+    public void record(int productId, int quantity, long revenueCents) {
+        Counters counters = products.get(productId);
+
+        if (counters == null) {
+            counters = products.computeIfAbsent(productId, id -> new Counters());
+        }
+
+        counters.units.add(quantity);
+        counters.cents.add(revenueCents);
+
+        Bucket bucket = bucket(currentMinute());
+        bucket.units.add(quantity);
+        bucket.cents.add(revenueCents);
+    }
+
+    // a thread that read the clock just before the minute changed may add to the newer bucket; that is accepted
+    private Bucket bucket(long minute) {
+        int slot = Math.floorMod(minute, buckets.length());
+        Bucket bucket = buckets.get(slot);
+
+        while (bucket == null || bucket.minute < minute) {
+            Bucket fresh = new Bucket(minute);
+
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+            bucket = buckets.get(slot);
+        }
+
+        return bucket;
+    }
+
+    public long currentMinute() {
+        return Math.floorDiv(clock.getAsLong(), MILLIS_PER_MINUTE);
+    }
+
+    public ProductSales product(int productId) {
+        Counters counters = products.get(productId);
+
+        if (counters == null) {
+            return new ProductSales(productId, 0, 0);
+        }
+
+        return new ProductSales(productId, counters.units.sum(), counters.cents.sum());
+    }
+
+    public long unitsSold(int productId) {
+        return product(productId).units();
+    }
+
+    public long revenueCents(int productId) {
+        return product(productId).revenueCents();
+    }
+
+    // summed on demand rather than counted, which would add two shared counters to every sale
+    public long totalUnits() {
+        long units = 0;
+        for (Counters counters : products.values()) {
+            units += counters.units.sum();
+        }
+        return units;
+    }
+
+    public long totalRevenueCents() {
+        long cents = 0;
+        for (Counters counters : products.values()) {
+            cents += counters.cents.sum();
+        }
+        return cents;
+    }
+
+    /**
+     * @return the sales of the given minute, all zero if nothing was sold then or it is no longer kept
+     */
+    public MinuteSales minute(long minute) {
+        Bucket bucket = buckets.get(Math.floorMod(minute, buckets.length()));
+
+        if (bucket == null || bucket.minute != minute) {
+            return new MinuteSales(minute, 0, 0);
+        }
+
+        return new MinuteSales(minute, bucket.units.sum(), bucket.cents.sum());
+    }
+
+    /**
+     * @return the last {@code count} minutes, the current one first
+     */
+    public List<MinuteSales> lastMinutes(int count) {
+        long current = currentMinute();
+        int kept = Math.min(count, buckets.length());
+        List<MinuteSales> minutes = new ArrayList<MinuteSales>(kept);
+
+        for (int i = 0; i < kept; i++) {
+            minutes.add(minute(current - i));
+        }
+
+        return minutes;
+    }
+
+    /**
+     * @return up to {@code count} products with the most units sold, best first; ties go to the lower id
+     */
+    public List<ProductSales> topSellers(int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+
+        Comparator<ProductSales> order = Comparator.comparingLong(ProductSales::units).reversed()
+                .thenComparingInt(ProductSales::productId);
+        // the worst of the best so far sits on top, ready to be dropped
+        PriorityQueue<ProductSales> best = new PriorityQueue<ProductSales>(order.reversed());
+
+        products.forEach((id, counters) -> {
+            best.add(new ProductSales(id, counters.units.sum(), counters.cents.sum()));
+            if (best.size() > count) {
+                best.poll();
+            }
+        });
+
+        List<ProductSales> top = new ArrayList<ProductSales>(best);
+        top.sort(order);
+        return top;
+    }
+}
@@ -0,0 +1,203 @@
+package com.snack.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Deduplicating image store: each distinct image is kept once, as {@code <sha256>.<ext>}, however many
+ * products use it.
+ * <p>
+ * The image is hashed while it is streamed into a temp file, which is then renamed into place, or dropped
+ * when a blob with the same hash already exists. An id to blob index with per-blob reference counts decides
+ * when a blob is deleted: only once its last product releases it. The index is journaled to {@code refs.log}
+ * in the store directory and replayed on startup, when blobs nobody references, their thumbnails and
+ * leftovers of interrupted stores are removed. Other files in the directory are left alone.
+ */
+public class ContentAddressedImageStore {
+    private static final String JOURNAL = "refs.log";
+    private static final String INCOMING = "incoming-";
+    private static final Pattern BLOB = Pattern.compile("([0-9a-f]{64})(\\.[^.]+)?");
+    private static final Pattern THUMBNAIL = Pattern.compile("([0-9a-f]{64})\\.thumb\\d+\\.[^.]+");
+
+    private final Path directory;
+    private final Path journal;
+    private final Map<Integer, String> blobsById = new HashMap<Integer, String>();
+    private final Map<String, Integer> references = new HashMap<String, Integer>();
+
+    public ContentAddressedImageStore(Path directory) throws IOException {
+        this.directory = directory;
+        this.journal = directory.resolve(JOURNAL);
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Stores the image for the product id and returns the blob it now points to. A previous image of the
+     * same product is released.
+     */
+    public Path store(int id, Path source, String extension) throws IOException {
+        Path temp = Files.createTempFile(directory, INCOMING, ".tmp");
+        String blob;
+
+        try {
+            try (InputStream in = new DigestInputStream(Files.newInputStream(source), sha256())) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                String hash = HexFormat.of().formatHex(((DigestInputStream) in).getMessageDigest().digest());
+                blob = extension.isEmpty() ? hash : hash + "." + extension;
+            }
+
+            synchronized (this) {
+                Path blobPath = directory.resolve(blob);
+
+                if (!Files.exists(blobPath)) {
+                    moveIntoPlace(temp, blobPath);
+                }
+
+                String previous = blobsById.put(id, blob);
+                references.merge(blob, 1, Integer::sum);
+                appendJournal(id + " " + blob);
+
+                if (previous != null) {
+                    unreference(previous);
+                }
+
+                return blobPath;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public synchronized Path get(int id) {
+        String blob = blobsById.get(id);
+        return blob == null ? null : directory.resolve(blob);
+    }
+
+    /**
+     * Drops the product's reference, deleting the blob if no other product uses it.
+     *
+     * @return false when the product had no image
+     */
+    public synchronized boolean release(int id) throws IOException {
+        String blob = blobsById.remove(id);
+
+        if (blob == null) {
+            return false;
+        }
+
+        appendJournal(id + " -");
+        unreference(blob);
+        return true;
+    }
+
+    public synchronized int referenceCount(String blob) {
+        return references.getOrDefault(blob, 0);
+    }
+
+    public synchronized int blobCount() {
+        return references.size();
+    }
+
+    private void unreference(String blob) throws IOException {
+        if (references.merge(blob, -1, Integer::sum) <= 0) {
+            references.remove(blob);
+            Files.deleteIfExists(directory.resolve(blob));
+        }
+    }
+
+    private void recover() throws IOException {
+        if (Files.exists(journal)) {
+            for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                String[] entry = line.split(" ", 2);
+                if (entry.length == 2) {
+                    if (entry[1].equals("-")) {
+                        blobsById.remove(Integer.parseInt(entry[0]));
+                    } else {
+                        blobsById.put(Integer.parseInt(entry[0]), entry[1]);
+                    }
+                }
+            }
+        }
+
+        for (String blob : blobsById.values()) {
+            references.merge(blob, 1, Integer::sum);
+        }
+
+        Set<String> hashes = new HashSet<String>();
+        for (String blob : references.keySet()) {
+            Matcher matcher = BLOB.matcher(blob);
+            if (matcher.matches()) {
+                hashes.add(matcher.group(1));
+            }
+        }
+
+        // drop blobs nobody references any more, their thumbnails and leftovers of interrupted stores
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher thumbnail = THUMBNAIL.matcher(name);
+                boolean orphan = BLOB.matcher(name).matches() ? !references.containsKey(name)
+                        : thumbnail.matches() ? !hashes.contains(thumbnail.group(1))
+                        : name.startsWith(INCOMING);
+                if (orphan) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+
+        compactJournal();
+    }
+
+    private void compactJournal() throws IOException {
+        Path compacted = directory.resolve(JOURNAL + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+            for (Map.Entry<Integer, String> entry : blobsById.entrySet()) {
+                writer.write(entry.getKey() + " " + entry.getValue());
+                writer.newLine();
+            }
+        }
+
+        moveIntoPlace(compacted, journal);
+    }
+
+    private void appendJournal(String line) throws IOException {
+        Files.write(journal, List.of(line), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static void moveIntoPlace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.snack.services;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory id to image path index for a directory of {@code <id>.<ext>} files, possibly spread over
+ * {@code shardDepth} levels of subdirectories (see {@link ImageStorageConfig}).
+ * <p>
+ * The directory is read once by {@link #rebuild()}; afterwards the service keeps the index current on every
+ * save and remove, so resolving an image never lists the directory. {@link #watch()} additionally follows
+ * files created or deleted by other processes. A rebuild fills a new map and swaps it in, so lookups made
+ * meanwhile still see the previous index; writes made meanwhile go to both.
+ */
+public class ImageIndex implements AutoCloseable {
+    private final Path directory;
+    private final int shardDepth;
+    private final Object rebuildLock = new Object();
+    private volatile Map<Integer, Path> images = new ConcurrentHashMap<Integer, Path>();
+    private volatile Map<Integer, Path> rebuilding;
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<WatchKey, Path>();
+    private WatchService watchService;
+
+    public ImageIndex(Path directory) {
+        this(directory, 0);
+    }
+
+    public ImageIndex(Path directory, int shardDepth) {
+        this.directory = directory;
+        this.shardDepth = shardDepth;
+    }
+
+    /**
+     * Parses the id out of an {@code <id>.<ext>} file name, so that {@code 10.jpg} is never taken for id 1.
+     *
+     * @return the id, or null when the name is not one of our images
+     */
+    public static Integer imageId(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+
+        try {
+            return Integer.parseInt(lastDotIndex == -1 ? fileName : fileName.substring(0, lastDotIndex));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            Map<Integer, Path> rebuilt = new ConcurrentHashMap<Integer, Path>();
+            rebuilding = rebuilt;
+
+            try {
+                if (Files.isDirectory(directory)) {
+                    indexFiles(rebuilt, directory, shardDepth + 1);
+                }
+                images = rebuilt;
+            } finally {
+                rebuilding = null;
+            }
+        }
+    }
+
+    // putIfAbsent, so a put made while a rebuild walks the directory wins over what the walk finds
+    private static void indexFiles(Map<Integer, Path> index, Path start, int maxDepth) {
+        try (Stream<Path> files = Files.walk(start, maxDepth)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                Integer id = imageId(file.getFileName().toString());
+                if (id != null) {
+                    index.putIfAbsent(id, file);
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Path get(int id) {
+        return images.get(id);
+    }
+
+    public void put(int id, Path image) {
+        images.put(id, image);
+
+        Map<Integer, Path> next = rebuilding;
+        if (next != null) {
+            next.put(id, image);
+        }
+    }
+
+    public Path remove(int id) {
+        Path removed = images.remove(id);
+
+        Map<Integer, Path> next = rebuilding;
+        if (next != null) {
+            next.remove(id);
+        }
+        return removed;
+    }
+
+    private void remove(int id, Path image) {
+        images.remove(id, image);
+
+        Map<Integer, Path> next = rebuilding;
+        if (next != null) {
+            next.remove(id, image);
+        }
+    }
+
+    /**
+     * Starts a daemon thread that applies changes made to the directory outside this application.
+     */
+    public synchronized void watch() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+
+        Files.createDirectories(directory);
+        watchService = directory.getFileSystem().newWatchService();
+
+        List<Path> shards;
+        try (Stream<Path> directories = Files.walk(directory, shardDepth)) {
+            shards = directories.filter(Files::isDirectory).toList();
+        }
+        for (Path shard : shards) {
+            register(shard);
+        }
+
+        WatchService service = watchService;
+        Thread watcher = new Thread(() -> follow(service), "image-index-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void register(Path shard) throws IOException {
+        WatchKey key = shard.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchedDirectories.put(key, shard);
+    }
+
+    private void follow(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                Path shard = watchedDirectories.get(key);
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || shard == null) {
+                        rebuild();
+                        continue;
+                    }
+
+                    Path file = shard.resolve((Path) event.context());
+
+                    if (Files.isDirectory(file)) {
+                        // a new shard directory: watch it and pick up what was written before registration
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                            registerQuietly(file);
+                        }
+                        continue;
+                    }
+
+                    Integer id = imageId(file.getFileName().toString());
+
+                    if (id == null) {
+                        continue;
+                    }
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        remove(id, file);
+                    } else if (Files.exists(file)) {
+                        put(id, file);
+                    }
+                }
+
+                if (!key.reset()) {
+                    watchedDirectories.remove(key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped by close()
+        }
+    }
+
+    private void registerQuietly(Path shard) {
+        try {
+            synchronized (this) {
+                if (watchService != null) {
+                    register(shard);
+                }
+            }
+            indexFiles(images, shard, Integer.MAX_VALUE);
+        } catch (IOException | RuntimeException e) {
+            rebuild();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+            watchedDirectories.clear();
+        }
+    }
+}
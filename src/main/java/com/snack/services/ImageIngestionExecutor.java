@@ -0,0 +1,75 @@
+package com.snack.services;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounded executor for image copies.
+ * <p>
+ * At most {@code parallelism} copies run at once and at most {@code queueCapacity} more may wait; a caller
+ * submitting beyond that blocks until a slot frees up, which throttles bulk imports to the speed of the disk
+ * instead of queueing unbounded work. Copies run on virtual threads when the JVM offers them (21+), and on a
+ * fixed pool of daemon threads otherwise.
+ */
+public class ImageIngestionExecutor implements Executor, AutoCloseable {
+    private final ExecutorService workers;
+    private final Semaphore queued;
+    private final Semaphore running;
+
+    public ImageIngestionExecutor(int parallelism, int queueCapacity) {
+        if (parallelism < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("parallelism must be positive and queueCapacity non-negative");
+        }
+
+        this.workers = newWorkers(parallelism);
+        this.queued = new Semaphore(parallelism + queueCapacity);
+        this.running = new Semaphore(parallelism);
+    }
+
+    public static ImageIngestionExecutor withDefaults() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        return new ImageIngestionExecutor(parallelism, parallelism * 64);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queued.acquireUninterruptibly();
+
+        try {
+            workers.execute(() -> {
+                running.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                    queued.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queued.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    private static ExecutorService newWorkers(int parallelism) {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "image-ingestion");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.snack.services;
+
+import com.snack.Settings;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Where {@link ProductService} keeps product images.
+ * <p>
+ * Images live under {@code root}, optionally spread over {@code shardDepth} levels of hashed subdirectories
+ * ({@code root/3f/a1/42.jpg} for depth 2) so that no directory grows past a few thousand entries, even for
+ * millions of products. Set up from code, or from system properties / environment variables with
+ * {@link #fromEnvironment()}:
+ * <ul>
+ *     <li>{@code snack.images.root} / {@code SNACK_IMAGES_ROOT}: the root directory, default {@code ~/BancoImagens}</li>
+ *     <li>{@code snack.images.shardDepth} / {@code SNACK_IMAGES_SHARD_DEPTH}: 0 (flat, default) to 4</li>
+ *     <li>{@code snack.images.ramDisk} / {@code SNACK_IMAGES_RAM_DISK}: {@code true} to keep images on tmpfs</li>
+ * </ul>
+ */
+public class ImageStorageConfig {
+    public static final int MAX_SHARD_DEPTH = 4;
+
+    private final Path root;
+    private final int shardDepth;
+
+    public ImageStorageConfig(Path root) {
+        this(root, 0);
+    }
+
+    public ImageStorageConfig(Path root, int shardDepth) {
+        if (shardDepth < 0 || shardDepth > MAX_SHARD_DEPTH) {
+            throw new IllegalArgumentException("shardDepth must be between 0 and " + MAX_SHARD_DEPTH);
+        }
+
+        this.root = root.toAbsolutePath();
+        this.shardDepth = shardDepth;
+    }
+
+    /**
+     * Keeps images on a RAM-backed filesystem ({@code /dev/shm} when available), trading durability for
+     * latency; meant for hot images that can be re-ingested after a restart.
+     */
+    public static ImageStorageConfig ramDisk(int shardDepth) {
+        Path shm = Paths.get("/dev/shm");
+        Path base = Files.isDirectory(shm) && Files.isWritable(shm) ? shm : Paths.get(System.getProperty("java.io.tmpdir"));
+        return new ImageStorageConfig(base.resolve("snack-images"), shardDepth);
+    }
+
+    public static ImageStorageConfig fromEnvironment() {
+        int shardDepth = Integer.parseInt(Settings.get("snack.images.shardDepth", "SNACK_IMAGES_SHARD_DEPTH", "0"));
+
+        if (Boolean.parseBoolean(Settings.get("snack.images.ramDisk", "SNACK_IMAGES_RAM_DISK", "false"))) {
+            return ramDisk(shardDepth);
+        }
+
+        String root = Settings.get("snack.images.root", "SNACK_IMAGES_ROOT",
+                Paths.get(System.getProperty("user.home"), "BancoImagens").toString());
+        return new ImageStorageConfig(Paths.get(root), shardDepth);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public int getShardDepth() {
+        return shardDepth;
+    }
+
+    public Path directoryFor(int id) {
+        Path directory = root;
+        int h = id * 0x9E3779B9;
+
+        for (int level = 0; level < shardDepth; level++) {
+            directory = directory.resolve(String.format("%02x", (h >>> (24 - level * 8)) & 0xff));
+        }
+
+        return directory;
+    }
+
+    public Path resolve(int id, String extension) {
+        return directoryFor(id).resolve(id + "." + extension);
+    }
+}
@@ -0,0 +1,221 @@
+package com.snack.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Image changes of a {@code CatalogTransaction}, applied all together or not at all.
+ * <p>
+ * {@link #stage(int, Path)} copies the new image to a temporary file in its destination directory right
+ * away, so the commit only renames. {@link #prepare()} syncs every staged file in one pass,
+ * {@link #commit()} renames them into place (moving any image they replace, or that is removed, to a backup
+ * file) and then syncs each touched directory once, and {@link #finish()} deletes the backups.
+ * {@link #rollback()} undoes a commit in reverse order or, before one, just deletes the staged files. Temporary
+ * and backup names never parse as a product id, so {@link ImageIndex} ignores them. The undo log lives in
+ * memory only: after a crash mid-commit nothing restores the backups. Not thread-safe; only supported without
+ * a content store.
+ */
+public class ImageTransaction implements AutoCloseable {
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private final ProductService productService;
+    private final long id = IDS.incrementAndGet();
+    private final List<Change> changes = new ArrayList<Change>();
+    private final List<Undo> undoLog = new ArrayList<Undo>();
+    private final List<Path> backups = new ArrayList<Path>();
+
+    private static final class Change {
+        private final int productId;
+        private final Path staged;
+        private final Path destination;
+
+        private Change(int productId, Path staged, Path destination) {
+            this.productId = productId;
+            this.staged = staged;
+            this.destination = destination;
+        }
+    }
+
+    private record Undo(int productId, Path installed, Path backup, Path previous) {
+    }
+
+    ImageTransaction(ProductService productService) {
+        if (productService.getContentStore() != null) {
+            throw new IllegalStateException("Image transactions do not support a content store");
+        }
+        this.productService = productService;
+    }
+
+    /**
+     * Copies {@code source} next to where the product's image will live.
+     *
+     * @return the path the image will have once committed
+     */
+    public Path stage(int productId, Path source) throws IOException {
+        Path destination = productService.getStorageConfig().resolve(productId, extension(source));
+        Files.createDirectories(destination.getParent());
+        Path staged = Files.createTempFile(destination.getParent(), ".stage" + id + ".", ".tmp");
+
+        try {
+            productService.getTransferStrategy().transfer(source, staged);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(staged);
+            throw e;
+        }
+
+        changes.add(new Change(productId, staged, destination));
+        return destination;
+    }
+
+    /**
+     * Deletes the product's current image on commit, if it has one then.
+     */
+    public void stageRemoval(int productId) {
+        changes.add(new Change(productId, null, null));
+    }
+
+    public void prepare() throws IOException {
+        for (Change change : changes) {
+            if (change.staged != null) {
+                force(change.staged, StandardOpenOption.WRITE);
+            }
+        }
+    }
+
+    public void commit() throws IOException {
+        ImageIndex index = productService.getImageIndex();
+        Set<Path> directories = new LinkedHashSet<Path>();
+
+        for (Change change : changes) {
+            Path previous = index.get(change.productId);
+            Path backup = null;
+
+            if (previous != null && Files.exists(previous)) {
+                backup = previous.resolveSibling(previous.getFileName() + "." + id + "." + undoLog.size() + ".bak");
+                move(previous, backup);
+                directories.add(previous.getParent());
+            }
+
+            // logged before installing, so a rename that fails still gets its backup restored
+            undoLog.add(new Undo(change.productId, null, backup, previous));
+            if (backup != null) {
+                backups.add(backup);
+            }
+
+            if (change.staged != null) {
+                move(change.staged, change.destination);
+                undoLog.set(undoLog.size() - 1, new Undo(change.productId, change.destination, backup, previous));
+                index.put(change.productId, change.destination);
+                directories.add(change.destination.getParent());
+            } else {
+                index.remove(change.productId);
+            }
+        }
+
+        for (Path directory : directories) {
+            syncDirectory(directory);
+        }
+    }
+
+    /**
+     * Deletes the replaced images and the thumbnails that went with them; the new images get theirs.
+     */
+    public void finish() {
+        for (Undo undo : undoLog) {
+            productService.replacedImage(undo.previous(), undo.installed());
+        }
+        for (Path backup : backups) {
+            try {
+                Files.deleteIfExists(backup);
+            } catch (IOException e) {
+                // a leftover backup is harmless: the index never picks it up
+            }
+        }
+        changes.clear();
+        undoLog.clear();
+        backups.clear();
+    }
+
+    public void rollback() {
+        ImageIndex index = productService.getImageIndex();
+
+        try {
+            for (int i = undoLog.size() - 1; i >= 0; i--) {
+                Undo undo = undoLog.get(i);
+
+                if (undo.installed() != null) {
+                    Files.deleteIfExists(undo.installed());
+                }
+                if (undo.backup() != null) {
+                    move(undo.backup(), undo.previous());
+                }
+                if (undo.previous() != null) {
+                    index.put(undo.productId(), undo.previous());
+                } else {
+                    index.remove(undo.productId());
+                }
+            }
+
+            for (Change change : changes) {
+                if (change.staged != null) {
+                    Files.deleteIfExists(change.staged);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not roll back image transaction " + id, e);
+        } finally {
+            changes.clear();
+            undoLog.clear();
+            backups.clear();
+        }
+    }
+
+    /**
+     * Rolls back anything staged but not finished.
+     */
+    @Override
+    public void close() {
+        if (!changes.isEmpty()) {
+            rollback();
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void force(Path path, StandardOpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, mode)) {
+            channel.force(true);
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try {
+            force(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // not every platform lets a directory be opened for syncing (Windows does not)
+        }
+    }
+
+    private static String extension(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot == -1 || dot == name.length() - 1 ? "" : name.substring(dot + 1);
+    }
+}
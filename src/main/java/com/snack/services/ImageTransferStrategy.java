@@ -0,0 +1,111 @@
+package com.snack.services;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * How {@link ProductService} puts a source image into the image directory.
+ */
+public enum ImageTransferStrategy {
+    /**
+     * Plain {@link Files#copy}; the default.
+     */
+    COPY {
+        @Override
+        public void transfer(Path source, Path destination) throws IOException {
+            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    },
+    /**
+     * {@link FileChannel#transferTo}, which lets the kernel move the bytes (sendfile/copy_file_range)
+     * without staging them in user space. Works across devices. The bytes go to a temporary file next to the
+     * destination, renamed into place only once complete, so a failed copy leaves the previous image intact.
+     */
+    TRANSFER {
+        @Override
+        public void transfer(Path source, Path destination) throws IOException {
+            Path temp = Files.createTempFile(destination.toAbsolutePath().getParent(), ".transfer", ".tmp");
+
+            try {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    long size = in.size();
+                    long position = 0;
+
+                    while (position < size) {
+                        long transferred = in.transferTo(position, size - position, out);
+
+                        // nothing left to read before the size taken at the start: the source shrank
+                        if (transferred == 0) {
+                            throw new IOException("Image " + source + " shrank while being copied");
+                        }
+                        position += transferred;
+                    }
+                }
+
+                try {
+                    Files.move(temp, destination, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, destination, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    },
+    /**
+     * Hard link to the source, so no byte is copied. The stored image shares the source's inode, so only use
+     * it when the source is never edited in place. Falls back to {@link #TRANSFER} across devices.
+     */
+    HARD_LINK {
+        @Override
+        public void transfer(Path source, Path destination) throws IOException {
+            // re-saving the stored image itself: deleting the destination would delete the source
+            if (Files.exists(destination) && Files.isSameFile(source, destination)) {
+                return;
+            }
+
+            Files.deleteIfExists(destination);
+
+            try {
+                Files.createLink(destination, source);
+            } catch (UnsupportedOperationException | FileSystemException e) {
+                TRANSFER.transfer(source, destination);
+            }
+        }
+    },
+    /**
+     * Atomic rename of a disposable source into the image directory; the source is gone afterwards. Falls
+     * back to a copy and delete across devices.
+     */
+    MOVE {
+        @Override
+        public void transfer(Path source, Path destination) throws IOException {
+            try {
+                Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(source, destination, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    };
+
+    public abstract void transfer(Path source, Path destination) throws IOException;
+
+    /**
+     * True when the destination already holds exactly the bytes of the source, so the transfer can be skipped.
+     */
+    public static boolean isIdentical(Path source, Path destination) throws IOException {
+        if (!Files.exists(destination)) {
+            return false;
+        }
+
+        return Files.isSameFile(source, destination)
+                || (Files.size(source) == Files.size(destination) && Files.mismatch(source, destination) == -1L);
+    }
+}
@@ -1,17 +1,94 @@
 package com.snack.services;
 
 import com.snack.entities.Product;
+import com.snack.metrics.Counter;
+import com.snack.metrics.Metrics;
+import com.snack.metrics.Timer;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
 
-public class ProductService {
-    private String filePath = "C:\\Users\\aluno\\BancoImagens\\";
+public class ProductService implements AutoCloseable {
+    private static final Timer SAVE = Metrics.timer("image.save");
+    private static final Timer REMOVE = Metrics.timer("image.remove");
+    private static final Counter SAVED_BYTES = Metrics.counter("image.savedBytes");
+
+    private ImageStorageConfig storageConfig;
+    private ImageIngestionExecutor ingestionExecutor;
+    private ImageIndex imageIndex;
+    private ImageTransferStrategy transferStrategy = ImageTransferStrategy.COPY;
+    private boolean skipIdenticalImages;
+    private ContentAddressedImageStore contentStore;
+    private ThumbnailService thumbnailService;
+
+    public ProductService() {
+        this(ImageStorageConfig.fromEnvironment());
+    }
+
+    public ProductService(ImageStorageConfig storageConfig) {
+        this.storageConfig = storageConfig;
+    }
+
+    public ProductService(ImageIngestionExecutor ingestionExecutor) {
+        this(ImageStorageConfig.fromEnvironment(), ingestionExecutor);
+    }
+
+    public ProductService(ImageStorageConfig storageConfig, ImageIngestionExecutor ingestionExecutor) {
+        this.storageConfig = storageConfig;
+        this.ingestionExecutor = ingestionExecutor;
+    }
+
+    public ImageStorageConfig getStorageConfig() {
+        return storageConfig;
+    }
+
+    public ImageTransferStrategy getTransferStrategy() {
+        return transferStrategy;
+    }
+
+    public void setTransferStrategy(ImageTransferStrategy transferStrategy) {
+        this.transferStrategy = transferStrategy;
+    }
+
+    public boolean isSkipIdenticalImages() {
+        return skipIdenticalImages;
+    }
+
+    /**
+     * When enabled, a save whose destination already holds the same bytes leaves the disk untouched.
+     */
+    public void setSkipIdenticalImages(boolean skipIdenticalImages) {
+        this.skipIdenticalImages = skipIdenticalImages;
+    }
+
+    public ContentAddressedImageStore getContentStore() {
+        return contentStore;
+    }
+
+    /**
+     * Switches to deduplicating storage: products with identical images share one stored file.
+     */
+    public void setContentStore(ContentAddressedImageStore contentStore) {
+        this.contentStore = contentStore;
+    }
+
+    public ThumbnailService getThumbnailService() {
+        return thumbnailService;
+    }
+
+    /**
+     * Generates thumbnails in the background for every saved image and deletes them with the image.
+     */
+    public void setThumbnailService(ThumbnailService thumbnailService) {
+        this.thumbnailService = thumbnailService;
+    }
 
     private String getFileExtension(Path path) {
         String filename = path.getFileName().toString();
@@ -25,41 +102,291 @@ public class ProductService {
     }
 
     public boolean save(Product product) {
+        long start = SAVE.start();
+        try {
+            return saveImage(product);
+        } finally {
+            SAVE.stop(start);
+        }
+    }
+
+    private boolean saveImage(Product product) {
         Path path = Paths.get(product.getImage());
 
-        Path destinationPath = Paths.get(String.format("%s%d.%s", filePath, product.getId(), getFileExtension(path)));
+        if (contentStore != null) {
+            return saveContent(product, path);
+        }
+
+        Path destinationPath = storageConfig.resolve(product.getId(), getFileExtension(path));
 
-        if (Files.exists(path)) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        try {
+            Files.createDirectories(destinationPath.getParent());
+            if (!skipIdenticalImages || !ImageTransferStrategy.isIdentical(path, destinationPath)) {
+                transferStrategy.transfer(path, destinationPath);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+
+        getImageIndex().put(product.getId(), destinationPath);
+        product.setImage(destinationPath.toString());
+        recordSavedBytes(destinationPath);
+        generateThumbnails(destinationPath);
+        return true;
+    }
+
+    private boolean saveContent(Product product, Path path) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        Path previous = contentStore.get(product.getId());
+        Path blob;
+
+        try {
+            blob = contentStore.store(product.getId(), path, getFileExtension(path));
+        } catch (IOException e) {
+            return false;
+        }
+
+        product.setImage(blob.toString());
+        // storing released the previous blob; if nobody else shared it, its thumbnails go with it
+        if (previous != null && !previous.equals(blob) && !Files.exists(previous)) {
             try {
-                Files.copy(path, destinationPath, StandardCopyOption.REPLACE_EXISTING);
-                product.setImage(destinationPath.toString());
-                return true;
+                deleteThumbnails(previous);
             } catch (IOException e) {
-                return false;
+                // best effort, like the metrics: the new image is stored
             }
         }
+        recordSavedBytes(blob);
+        generateThumbnails(blob);
+        return true;
+    }
 
-        return false;
+    /**
+     * Copies the image on the ingestion executor; the product's image path is set once the copy is done.
+     */
+    public CompletableFuture<Boolean> saveAsync(Product product) {
+        return CompletableFuture.supplyAsync(() -> save(product), getIngestionExecutor());
+    }
+
+    private synchronized ImageIngestionExecutor getIngestionExecutor() {
+        if (ingestionExecutor == null) {
+            ingestionExecutor = ImageIngestionExecutor.withDefaults();
+        }
+        return ingestionExecutor;
+    }
+
+    // built by a single directory walk the first time an image is saved or resolved
+    synchronized ImageIndex getImageIndex() {
+        if (imageIndex == null) {
+            imageIndex = new ImageIndex(storageConfig.getRoot(), storageConfig.getShardDepth());
+            imageIndex.rebuild();
+        }
+        return imageIndex;
+    }
+
+    /**
+     * Keeps the image index in sync with files added or deleted outside the application.
+     */
+    public void watchImageDirectory() throws IOException {
+        getImageIndex().watch();
     }
 
     public String getImagePathById(int id) {
-        File directory = new File(filePath);
-        File[] matches = directory.listFiles((dir, name) -> name.startsWith(String.valueOf(id)));
-        return Arrays.stream(matches).findFirst().get().getAbsolutePath();
+        Path image = contentStore != null ? contentStore.get(id) : getImageIndex().get(id);
+
+        if (image == null) {
+            throw new NoSuchElementException("No image for product " + id);
+        }
+
+        return image.toString();
     }
 
     public void update(Product product) {
+        if (contentStore != null) {
+            // storing the new image releases the old one
+            save(product);
+            return;
+        }
+
         remove(product.getId());
         save(product);
     }
 
+    /**
+     * Starts a set of image changes that is committed or rolled back as a whole.
+     */
+    public ImageTransaction begin() {
+        return new ImageTransaction(this);
+    }
+
+    // called once a transaction has replaced or deleted an image for good
+    void replacedImage(Path previous, Path installed) {
+        try {
+            deleteThumbnails(previous);
+            // an image installed and replaced again by the same transaction is gone already
+            if (installed != null && Files.exists(installed)) {
+                recordSavedBytes(installed);
+                generateThumbnails(installed);
+            }
+        } catch (IOException e) {
+            // thumbnails are best effort; the images themselves are already committed
+        }
+    }
+
+    private void generateThumbnails(Path image) {
+        if (thumbnailService != null) {
+            thumbnailService.generateAsync(image);
+        }
+    }
+
+    private void deleteThumbnails(Path image) throws IOException {
+        if (thumbnailService != null && image != null) {
+            thumbnailService.invalidate(image);
+        }
+    }
+
+    /**
+     * Returns the thumbnail of the product's image at one of the thumbnail service's sizes.
+     */
+    public byte[] getThumbnail(int id, int size) throws IOException {
+        if (thumbnailService == null) {
+            throw new IllegalStateException("No thumbnail service configured");
+        }
+
+        return thumbnailService.getThumbnail(Paths.get(getImagePathById(id)), size);
+    }
+
+    // best effort: the image is saved by now, so failing to measure it must not fail the save
+    private void recordSavedBytes(Path image) {
+        if (Metrics.ENABLED) {
+            try {
+                SAVED_BYTES.add(Files.size(image));
+            } catch (IOException e) {
+                // not counted
+            }
+        }
+    }
+
     public void remove(int id) {
+        long start = REMOVE.start();
+        try {
+            removeImage(id);
+        } finally {
+            REMOVE.stop(start);
+        }
+    }
+
+    private void removeImage(int id) {
+        if (contentStore != null) {
+            removeContent(id);
+            return;
+        }
+
         Path path = Paths.get(getImagePathById(id));
 
         try {
+            deleteThumbnails(path);
             Files.deleteIfExists(path);
+            getImageIndex().remove(id);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean removeContent(int id) {
+        Path blob = contentStore.get(id);
+
+        try {
+            if (!contentStore.release(id)) {
+                throw new NoSuchElementException("No image for product " + id);
+            }
+            // other products may still share the blob, and with it its thumbnails
+            if (!Files.exists(blob)) {
+                deleteThumbnails(blob);
+            }
+            return true;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
+
+    public Map<Integer, Boolean> saveAll(List<Product> products) {
+        Map<Integer, Boolean> results = new LinkedHashMap<Integer, Boolean>();
+
+        for (Product product : products) {
+            try {
+                results.put(product.getId(), save(product));
+            } catch (RuntimeException e) {
+                results.put(product.getId(), false);
+            }
+        }
+
+        return results;
+    }
+
+    public Map<Integer, Boolean> updateAll(List<Product> products) {
+        // the content store releases the old image itself when the new one is stored
+        if (contentStore == null) {
+            removeAll(products.stream().map(Product::getId).toList());
+        }
+
+        return saveAll(products);
+    }
+
+    /**
+     * @return for each id, whether an image was found and deleted
+     */
+    public Map<Integer, Boolean> removeAll(List<Integer> ids) {
+        if (contentStore != null) {
+            Map<Integer, Boolean> results = new LinkedHashMap<Integer, Boolean>();
+
+            for (int id : ids) {
+                try {
+                    results.put(id, removeContent(id));
+                } catch (RuntimeException e) {
+                    results.put(id, false);
+                }
+            }
+
+            return results;
+        }
+
+        ImageIndex images = getImageIndex();
+        Map<Integer, Boolean> results = new LinkedHashMap<Integer, Boolean>();
+
+        for (int id : ids) {
+            Path image = images.get(id);
+
+            try {
+                deleteThumbnails(image);
+                results.put(id, image != null && Files.deleteIfExists(image));
+                images.remove(id);
+            } catch (IOException e) {
+                results.put(id, false);
+            }
+        }
+
+        return results;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (ingestionExecutor != null) {
+                ingestionExecutor.close();
+            }
+            if (imageIndex != null) {
+                imageIndex.close();
+            }
+            if (thumbnailService != null) {
+                thumbnailService.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,352 @@
+package com.snack.services;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Downscaled copies of product images, so screens do not decode and shrink full-size originals on every
+ * render.
+ * <p>
+ * For every configured size, {@code 42.jpg} gets a {@code 42.thumb256.jpg} next to it whose longer side is at
+ * most 256 pixels (the {@code thumb} infix keeps {@link ImageIndex} from mistaking it for an original).
+ * Thumbnails are written on the given executor after an image is saved, read back through a cache bounded by
+ * total bytes, and generated on the spot if a read comes before the background job. JPEG originals get JPEG
+ * thumbnails, everything else PNG.
+ * <p>
+ * Every original being worked on has a generation stamp, bumped by {@link #invalidate(Path)}. A background
+ * job only installs its thumbnails, and a read only caches its bytes, if the stamp has not moved since they
+ * started, so work begun on an image that has since been replaced never outlives the invalidation. A stamp is
+ * dropped once no job or read holds it, and thumbnail files are moved and deleted under the stamp's lock, so
+ * cache hits never wait on the disk.
+ */
+public class ThumbnailService implements AutoCloseable {
+    public static final int[] DEFAULT_SIZES = {64, 256};
+    public static final long DEFAULT_CACHE_BYTES = 32L * 1024 * 1024;
+
+    private final int[] sizes;
+    private final long cacheBytes;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final LinkedHashMap<Path, byte[]> cache = new LinkedHashMap<Path, byte[]>(16, 0.75f, true);
+    private long cachedBytes;
+    // guarded by cache, like the bytes themselves
+    private final Map<Path, Stamp> stamps = new HashMap<Path, Stamp>();
+
+    public ThumbnailService() {
+        this(DEFAULT_SIZES, DEFAULT_CACHE_BYTES, ImageIngestionExecutor.withDefaults(), true);
+    }
+
+    public ThumbnailService(int[] sizes, long cacheBytes, Executor executor) {
+        this(sizes, cacheBytes, executor, false);
+    }
+
+    private ThumbnailService(int[] sizes, long cacheBytes, Executor executor, boolean ownsExecutor) {
+        if (sizes.length == 0 || Arrays.stream(sizes).anyMatch(size -> size <= 0)) {
+            throw new IllegalArgumentException("Thumbnail sizes must be positive: " + Arrays.toString(sizes));
+        }
+
+        this.sizes = sizes.clone();
+        this.cacheBytes = cacheBytes;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    public int[] getSizes() {
+        return sizes.clone();
+    }
+
+    public static Path thumbnailPath(Path original, int size) {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String base = dot == -1 ? name : name.substring(0, dot);
+        return original.resolveSibling(base + ".thumb" + size + "." + format(original));
+    }
+
+    /**
+     * Writes every thumbnail of {@code original}.
+     *
+     * @return false when the original is missing or not an image ImageIO can read
+     */
+    public boolean generate(Path original) throws IOException {
+        Stamp stamp = acquire(original);
+        try {
+            return generate(original, stamp, stamp.generation);
+        } finally {
+            release(original, stamp);
+        }
+    }
+
+    private boolean generate(Path original, Stamp stamp, long generation) throws IOException {
+        BufferedImage image = Files.exists(original) ? ImageIO.read(original.toFile()) : null;
+
+        if (image == null) {
+            return false;
+        }
+
+        for (int size : sizes) {
+            write(original, stamp, generation, size, scale(image, size, format(original)));
+        }
+
+        return true;
+    }
+
+    public CompletableFuture<Boolean> generateAsync(Path original) {
+        Stamp stamp = acquire(original);
+        long generation = stamp.generation;
+
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return generate(original, stamp, generation);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                } finally {
+                    release(original, stamp);
+                }
+            }, executor);
+        } catch (RuntimeException e) {
+            // rejected by the executor, so the job will never release it
+            release(original, stamp);
+            throw e;
+        }
+    }
+
+    /**
+     * Regenerates the thumbnails of many images in parallel on the executor.
+     *
+     * @return completes with the number of images that got thumbnails
+     */
+    public CompletableFuture<Integer> regenerateAll(List<Path> originals) {
+        List<CompletableFuture<Boolean>> jobs = new ArrayList<CompletableFuture<Boolean>>(originals.size());
+
+        for (Path original : originals) {
+            invalidateCache(original);
+            jobs.add(generateAsync(original).exceptionally(e -> false));
+        }
+
+        return CompletableFuture.allOf(jobs.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> (int) jobs.stream().filter(CompletableFuture::join).count());
+    }
+
+    /**
+     * Returns the thumbnail bytes of {@code original} for one of the configured sizes, from the cache when
+     * possible.
+     */
+    public byte[] getThumbnail(Path original, int size) throws IOException {
+        if (Arrays.stream(sizes).noneMatch(candidate -> candidate == size)) {
+            throw new IllegalArgumentException("No thumbnail size " + size + " in " + Arrays.toString(sizes));
+        }
+
+        Path thumbnail = thumbnailPath(original, size);
+
+        while (true) {
+            byte[] bytes;
+
+            synchronized (cache) {
+                bytes = cache.get(thumbnail);
+            }
+
+            if (bytes != null) {
+                return bytes;
+            }
+
+            Stamp stamp = acquire(original);
+            try {
+                long generation = stamp.generation;
+
+                if (!Files.exists(thumbnail) && !generate(original, stamp, generation)) {
+                    throw new IOException("Cannot read image " + original);
+                }
+
+                try {
+                    bytes = Files.readAllBytes(thumbnail);
+                } catch (NoSuchFileException e) {
+                    if (stamp.generation == generation) {
+                        throw e;
+                    }
+                    continue;
+                }
+
+                // invalidated while reading: the bytes may be those of the replaced image, so read again
+                if (cache(stamp, generation, thumbnail, bytes)) {
+                    return bytes;
+                }
+            } finally {
+                release(original, stamp);
+            }
+        }
+    }
+
+    /**
+     * Drops the cached thumbnails of {@code original} and deletes their files.
+     */
+    public void invalidate(Path original) throws IOException {
+        Stamp stamp = acquire(original);
+        try {
+            invalidateCache(original);
+
+            // under the lock write moves with, so a stale thumbnail cannot land after the deletion
+            synchronized (stamp) {
+                for (int size : sizes) {
+                    Files.deleteIfExists(thumbnailPath(original, size));
+                }
+            }
+        } finally {
+            release(original, stamp);
+        }
+    }
+
+    public long getCachedBytes() {
+        synchronized (cache) {
+            return cachedBytes;
+        }
+    }
+
+    int stampCount() {
+        synchronized (cache) {
+            return stamps.size();
+        }
+    }
+
+    private Stamp acquire(Path original) {
+        synchronized (cache) {
+            Stamp stamp = stamps.computeIfAbsent(original, path -> new Stamp());
+            stamp.users++;
+            return stamp;
+        }
+    }
+
+    // with no holder left, nothing compares against the stamp, so a later one may start over at 0
+    private void release(Path original, Stamp stamp) {
+        synchronized (cache) {
+            if (--stamp.users == 0) {
+                stamps.remove(original);
+            }
+        }
+    }
+
+    private void invalidateCache(Path original) {
+        synchronized (cache) {
+            Stamp stamp = stamps.get(original);
+            if (stamp != null) {
+                stamp.generation++;
+            }
+
+            for (int size : sizes) {
+                byte[] removed = cache.remove(thumbnailPath(original, size));
+
+                if (removed != null) {
+                    cachedBytes -= removed.length;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false, caching nothing, if {@code original} was invalidated since {@code generation}
+     */
+    private boolean cache(Stamp stamp, long generation, Path thumbnail, byte[] bytes) {
+        synchronized (cache) {
+            if (stamp.generation != generation) {
+                return false;
+            }
+            if (bytes.length > cacheBytes) {
+                return true;
+            }
+
+            byte[] previous = cache.put(thumbnail, bytes);
+            cachedBytes += bytes.length - (previous == null ? 0 : previous.length);
+
+            while (cachedBytes > cacheBytes) {
+                Map.Entry<Path, byte[]> eldest = cache.entrySet().iterator().next();
+                cachedBytes -= eldest.getValue().length;
+                cache.remove(eldest.getKey());
+            }
+            return true;
+        }
+    }
+
+    private void write(Path original, Stamp stamp, long generation, int size, BufferedImage thumbnail)
+            throws IOException {
+        Path target = thumbnailPath(original, size);
+        Path temp = Files.createTempFile(target.getParent(), ".thumb", ".tmp");
+
+        try {
+            ImageIO.write(thumbnail, format(original), temp.toFile());
+
+            synchronized (stamp) {
+                if (stamp.generation != generation) {
+                    return;
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        // the original may have been removed while this thumbnail was being written
+        if (!Files.exists(original)) {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int size, String format) {
+        double factor = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        // the JPEG writer cannot encode an alpha channel
+        int type = format.equals("jpg") ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D graphics = scaled.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        return scaled;
+    }
+
+    private static String format(Path original) {
+        String name = original.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".jpg") || name.endsWith(".jpeg") ? "jpg" : "png";
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            ((ImageIngestionExecutor) executor).close();
+        }
+    }
+
+    private static final class Stamp {
+        // bumped under the cache lock, read without it by writers holding the stamp's own lock
+        volatile long generation;
+        // guarded by cache
+        int users;
+    }
+}
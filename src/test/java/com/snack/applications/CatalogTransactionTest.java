@@ -0,0 +1,215 @@
+package com.snack.applications;
+
+import com.snack.entities.Product;
+import com.snack.inventory.Inventory;
+import com.snack.repositories.CatalogRepository;
+import com.snack.repositories.ProductRepository;
+import com.snack.repositories.RepositoryEngine;
+import com.snack.services.ImageStorageConfig;
+import com.snack.services.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogTransactionTest {
+    @TempDir
+    Path pastaTemporaria;
+    private Path bancoImagens;
+    private Path imagemJpg;
+    private Path imagemPng;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bancoImagens = Files.createDirectories(pastaTemporaria.resolve("BancoImagens"));
+        imagemJpg = Files.write(pastaTemporaria.resolve("nova.jpg"), new byte[]{1, 2, 3});
+        imagemPng = Files.write(pastaTemporaria.resolve("nova.png"), new byte[]{4, 5});
+        productService = new ProductService(new ImageStorageConfig(bancoImagens));
+    }
+
+    private List<String> arquivosNoBanco() throws IOException {
+        try (Stream<Path> arquivos = Files.list(bancoImagens)) {
+            return arquivos.map(arquivo -> arquivo.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void commitAplicaTodasAsOperacoesNoRepositorioENasImagens() throws IOException {
+        // Arrange
+        ProductRepository repository = new ProductRepository();
+        ProductApplication application = new ProductApplication(repository, productService);
+        application.append(new Product(1, "Hot Dog", 10f, imagemJpg.toString()));
+        application.append(new Product(2, "Coxinha", 5f, imagemJpg.toString()));
+
+        // Act
+        try (CatalogTransaction transaction = application.begin()) {
+            transaction.append(new Product(3, "Pastel", 7f, imagemJpg.toString()))
+                    .append(new Product(4, "Suco", 6f, imagemPng.toString()))
+                    .update(1, new Product(1, "Hot Dog Duplo", 14f, imagemPng.toString()))
+                    .remove(2);
+            transaction.commit();
+        }
+
+        // Assert
+        assertEquals(List.of("1.png", "3.jpg", "4.png"), arquivosNoBanco());
+        assertEquals("Hot Dog Duplo", repository.getById(1).getDescription());
+        assertEquals(bancoImagens.resolve("1.png").toString(), repository.getById(1).getImage());
+        assertEquals(bancoImagens.resolve("3.jpg").toString(), repository.getById(3).getImage());
+        assertFalse(repository.exists(2));
+        assertThrows(NoSuchElementException.class, () -> productService.getImagePathById(2));
+    }
+
+    @Test
+    void commitComIdRepetidoNaoAlteraNada() throws IOException {
+        // Arrange
+        ProductRepository repository = new ProductRepository();
+        ProductApplication application = new ProductApplication(repository, productService);
+        application.append(new Product(1, "Hot Dog", 10f, imagemJpg.toString()));
+        CatalogTransaction transaction = application.begin();
+        transaction.update(1, new Product(1, "Hot Dog Duplo", 14f, imagemPng.toString()))
+                .append(new Product(2, "Coxinha", 5f, imagemPng.toString()))
+                .append(new Product(1, "Repetido", 1f, imagemPng.toString()));
+
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class, transaction::commit);
+        assertEquals(List.of("1.jpg"), arquivosNoBanco());
+        assertEquals("Hot Dog", repository.getById(1).getDescription());
+        assertFalse(repository.exists(2));
+        assertEquals(bancoImagens.resolve("1.jpg").toString(), productService.getImagePathById(1));
+    }
+
+    @Test
+    void falhaNoRepositorioDesfazOsLotesJaAplicadosEAsImagens() throws IOException {
+        // Arrange
+        ProductRepository repository = new ProductRepository() {
+            @Override
+            public void removeAll(List<Integer> ids) {
+                throw new UncheckedIOException(new IOException("disco cheio"));
+            }
+        };
+        ProductApplication application = new ProductApplication(repository, productService);
+        application.append(new Product(1, "Hot Dog", 10f, imagemJpg.toString()));
+        CatalogTransaction transaction = application.begin();
+        Product coxinha = new Product(2, "Coxinha", 5f, imagemPng.toString());
+        transaction.append(coxinha)
+                .update(1, new Product(1, "Hot Dog Duplo", 14f, imagemPng.toString()))
+                .remove(1);
+
+        // Act + Assert
+        assertThrows(UncheckedIOException.class, transaction::commit);
+        assertEquals(imagemPng.toString(), coxinha.getImage());
+        assertEquals(List.of("1.jpg"), arquivosNoBanco());
+        assertFalse(repository.exists(2));
+        assertEquals("Hot Dog", repository.getById(1).getDescription());
+        assertEquals(10f, repository.getById(1).getPrice());
+        assertEquals(bancoImagens.resolve("1.jpg").toString(), repository.getById(1).getImage());
+        assertEquals(bancoImagens.resolve("1.jpg").toString(), productService.getImagePathById(1));
+    }
+
+    @Test
+    void fecharSemCommitDescartaAsImagensPreparadas() throws IOException {
+        // Arrange
+        ProductRepository repository = new ProductRepository();
+        ProductApplication application = new ProductApplication(repository, productService);
+
+        // Act
+        try (CatalogTransaction transaction = application.begin()) {
+            transaction.append(new Product(1, "Hot Dog", 10f, imagemJpg.toString()));
+        }
+
+        // Assert
+        assertEquals(List.of(), arquivosNoBanco());
+        assertFalse(repository.exists(1));
+    }
+
+    @Test
+    void operacoesSobreOMesmoIdSaoValidadasEmOrdem() throws IOException {
+        // Arrange
+        ProductRepository repository = new ProductRepository();
+        ProductApplication application = new ProductApplication(repository, productService);
+
+        // Act
+        try (CatalogTransaction transaction = application.begin()) {
+            transaction.append(new Product(1, "Hot Dog", 10f, imagemJpg.toString()))
+                    .update(1, new Product(1, "Hot Dog Duplo", 14f, imagemPng.toString()))
+                    .append(new Product(2, "Coxinha", 5f, imagemJpg.toString()))
+                    .remove(2);
+            transaction.commit();
+        }
+
+        // Assert
+        assertEquals(List.of("1.png"), arquivosNoBanco());
+        assertEquals(14f, repository.getById(1).getPrice());
+        assertFalse(repository.exists(2));
+    }
+
+    @Test
+    void produtoRemovidoEAdicionadoDeNovoNaoHerdaOEstoque() throws IOException {
+        // Arrange
+        ProductRepository repository = new ProductRepository();
+        ProductApplication application = new ProductApplication(repository, productService);
+        application.append(new Product(1, "Hot Dog", 10f, imagemJpg.toString()));
+        application.append(new Product(2, "Coxinha", 5f, imagemJpg.toString()));
+        application.getInventory().setStock(1, 8);
+        application.getInventory().setStock(2, 3);
+
+        // Act
+        try (CatalogTransaction transaction = application.begin()) {
+            transaction.remove(1)
+                    .append(new Product(1, "Hot Dog Vegano", 12f, imagemPng.toString()))
+                    .remove(2);
+            transaction.commit();
+        }
+
+        // Assert
+        assertEquals("Hot Dog Vegano", repository.getById(1).getDescription());
+        assertEquals(Inventory.UNTRACKED, application.getInventory().available(1));
+        assertEquals(Inventory.UNTRACKED, application.getInventory().available(2));
+    }
+
+    @Test
+    void commitNoMotorPersistenteSobreviveAReabertura() throws IOException {
+        // Arrange
+        Path diretorio = pastaTemporaria.resolve("catalogo");
+        CatalogRepository repository = RepositoryEngine.PERSISTENT.open(diretorio);
+        ProductApplication application = new ProductApplication(repository, productService);
+
+        // Act
+        try (CatalogTransaction transaction = application.begin()) {
+            for (int id = 1; id <= 50; id++) {
+                transaction.append(new Product(id, "Produto " + id, id, imagemJpg.toString()));
+            }
+            transaction.commit();
+        }
+        repository.close();
+
+        // Assert
+        try (CatalogRepository reaberto = RepositoryEngine.PERSISTENT.open(diretorio)) {
+            assertEquals(50, reaberto.getAll().size());
+            assertEquals(bancoImagens.resolve("50.jpg").toString(), reaberto.getById(50).getImage());
+        }
+        assertEquals(50, arquivosNoBanco().size());
+    }
+
+    @Test
+    void transacaoNaoPodeSerUsadaDepoisDoCommit() throws IOException {
+        // Arrange
+        ProductApplication application = new ProductApplication(new ProductRepository(), productService);
+        CatalogTransaction transaction = application.begin();
+        transaction.commit();
+
+        // Act + Assert
+        assertThrows(IllegalStateException.class, () -> transaction.remove(1));
+        assertThrows(IllegalStateException.class, transaction::commit);
+    }
+}
@@ -1,24 +1,42 @@
 package com.snack.applications;
 
+import com.snack.entities.Cart;
+import com.snack.entities.CartError;
 import com.snack.entities.Product;
+import com.snack.entities.Receipt;
+import com.snack.events.CatalogEvent;
+import com.snack.events.CatalogEventStream;
+import com.snack.inventory.Inventory;
+import com.snack.inventory.Reservation;
 import com.snack.repositories.ProductRepository;
+import com.snack.repositories.storage.ConcurrentProductStorage;
+import com.snack.repositories.storage.HashProductStorage;
+import com.snack.services.ImageStorageConfig;
 import com.snack.services.ProductService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException; // Importe esta exceção
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProductApplicationTest {
-    private final String CAMINHO_IMAGENS_ORIGEM_TESTE = "C:\\temp_testes\\";
-    private final String CAMINHO_BANCO_IMAGENS_DESTINO = "C:\\Users\\aluno\\BancoImagens\\";
+    @TempDir
+    Path pastaTemporaria;
+    private String CAMINHO_IMAGENS_ORIGEM_TESTE;
+    private String CAMINHO_BANCO_IMAGENS_DESTINO;
     private ProductRepository productRepository;
     private ProductService productService;
     private ProductApplication productApplication; // A classe que estamos a testar
@@ -28,6 +46,8 @@ public class ProductApplicationTest {
 
     @BeforeEach
     void setUp() throws IOException {
+        CAMINHO_IMAGENS_ORIGEM_TESTE = pastaTemporaria.resolve("temp_testes") + File.separator;
+        CAMINHO_BANCO_IMAGENS_DESTINO = pastaTemporaria.resolve("BancoImagens") + File.separator;
         Files.createDirectories(Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE));
         Files.createDirectories(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO));
         arquivoImagemFalso1 = Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE + "fake1.jpg");
@@ -36,7 +56,7 @@ public class ProductApplicationTest {
         arquivoImagemFalso2 = Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE + "fake2.png");
         Files.deleteIfExists(arquivoImagemFalso2); // Garante que está limpo
         productRepository = new ProductRepository();
-        productService = new ProductService(); // Usa o construtor vazio
+        productService = new ProductService(new ImageStorageConfig(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO))); // Banco de imagens na pasta temporária
         productApplication = new ProductApplication(productRepository, productService);
         product1 = new Product(1, "Hot Dog", 10.4f, arquivoImagemFalso1.toString());
     }
@@ -148,4 +168,338 @@ public class ProductApplicationTest {
         assertFalse(Files.exists(imagemAntiga));
         assertTrue(Files.exists(imagemNova));
     }
-}
\ No newline at end of file
+    @Test
+    public void deveExibirProdutoImediatamenteEPreencherImagemAoConcluirCopia() {
+        // Arrange
+        Path arquivoDestinoEsperado = Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO + "1.jpg");
+        // Act
+        CompletableFuture<Boolean> copia = productApplication.appendAsync(product1);
+        boolean existiaAntesDaCopia = productRepository.exists(1);
+        boolean salvo = copia.join();
+        // Assert
+        assertTrue(existiaAntesDaCopia);
+        assertTrue(salvo);
+        assertTrue(Files.exists(arquivoDestinoEsperado));
+        assertEquals(arquivoDestinoEsperado.toString(), productRepository.getById(1).getImage());
+    }
+
+    @Test
+    void copiaAssincronaNaoDeveAlterarOProdutoGuardado() {
+        // Arrange
+        ProductRepository repositorio = new ProductRepository(new ConcurrentProductStorage());
+        ProductApplication aplicacao = new ProductApplication(repositorio, productService);
+        String imagemOriginal = product1.getImage();
+        // Act
+        boolean salvo = aplicacao.appendAsync(product1).join();
+        // Assert
+        assertTrue(salvo);
+        assertEquals(imagemOriginal, product1.getImage());
+        assertEquals(CAMINHO_BANCO_IMAGENS_DESTINO + "1.jpg", repositorio.getById(1).getImage());
+    }
+
+    @Test
+    void deveCalcularCarrinhoEmCentavosExatos() {
+        // Arrange
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, ""));
+        productRepository.append(new Product(2, "Refrigerante", 0.1f, ""));
+        Cart carrinho = new Cart().add(1, 3);
+        for (int i = 0; i < 1_000; i++) {
+            carrinho.add(2, 1);
+        }
+        // Act
+        Receipt recibo = productApplication.checkout(carrinho);
+        // Assert
+        assertTrue(recibo.isValid());
+        assertEquals(1_001, recibo.lineCount());
+        assertEquals(3_120, recibo.lineCents(0));
+        assertEquals(3_120 + 10_000, recibo.totalCents());
+        assertEquals("131.20", Receipt.formatCents(recibo.totalCents()));
+    }
+
+    @Test
+    void carrinhoDeveRetornarErrosEstruturadosSemLancarExcecao() {
+        // Arrange
+        productRepository.append(product1);
+        Cart carrinho = new Cart().add(1, 2).add(99, 1).add(1, 0).add(1, -5);
+        // Act
+        Receipt recibo = productApplication.checkout(carrinho);
+        // Assert
+        assertFalse(recibo.isValid());
+        assertEquals(2_080, recibo.totalCents());
+        assertEquals(3, recibo.errors().size());
+        assertEquals(new CartError(1, 99, 1, CartError.Reason.UNKNOWN_PRODUCT), recibo.errors().get(0));
+        assertEquals(CartError.Reason.INVALID_QUANTITY, recibo.errors().get(1).reason());
+        assertEquals(3, recibo.errors().get(2).line());
+        assertEquals(0, recibo.lineCents(1));
+    }
+
+    @Test
+    void alteracoesDevemSerPublicadasNoStreamDeEventos() {
+        // Arrange
+        CatalogEventStream.Cursor cursor = productApplication.getEventStream().cursor();
+        // Act
+        productApplication.append(product1);
+        productApplication.update(1, new Product(1, "Hot Dog Duplo", 14f, arquivoImagemFalso1.toString()));
+        productApplication.sellProduct(1, 2);
+        productApplication.remove(1);
+        List<CatalogEvent> eventos = cursor.poll(10);
+        // Assert
+        assertEquals(List.of(CatalogEvent.Type.APPENDED, CatalogEvent.Type.UPDATED, CatalogEvent.Type.SOLD,
+                CatalogEvent.Type.REMOVED), eventos.stream().map(CatalogEvent::type).toList());
+        assertEquals("Hot Dog Duplo", eventos.get(1).product().description());
+        assertEquals(2, eventos.get(2).quantity());
+        assertEquals(1, eventos.get(3).productId());
+    }
+
+    @Test
+    void semStreamDeEventosAsAlteracoesContinuamFuncionando() {
+        // Arrange
+        productApplication.setEventStream(null);
+        // Act
+        productApplication.append(product1);
+        productApplication.sellProduct(1, 1);
+        // Assert
+        assertTrue(productApplication.exists(1));
+    }
+
+    @Test
+    void vendasDevemSerRegistradasNoLivroDeVendas() {
+        // Arrange
+        productApplication.append(product1);
+        // Act
+        productApplication.sellProduct(1, 3);
+        // Assert
+        assertThrows(IllegalArgumentException.class, () -> productApplication.sellProduct(1, 0));
+        assertThrows(IllegalArgumentException.class, () -> productApplication.sellProduct(1, -2));
+        assertEquals(3, productApplication.getSalesLedger().unitsSold(1));
+        assertEquals(3_120, productApplication.getSalesLedger().revenueCents(1));
+        assertEquals(1, productApplication.getSalesLedger().topSellers(1).get(0).productId());
+    }
+
+    @Test
+    void naoDeveVenderMaisDoQueOEstoque() {
+        // Arrange
+        productApplication.append(product1);
+        productApplication.getInventory().setStock(1, 2);
+        // Act
+        productApplication.sellProduct(1, 2);
+        // Assert
+        assertThrows(IllegalStateException.class, () -> productApplication.sellProduct(1, 1));
+        assertEquals(0, productApplication.getInventory().available(1));
+        assertEquals(2, productApplication.getSalesLedger().unitsSold(1));
+    }
+
+    @Test
+    void reservaDeCarrinhoDeveSegurarOEstoque() {
+        // Arrange
+        productApplication.append(product1);
+        productApplication.getInventory().setStock(1, 3);
+        // Act
+        Reservation reserva = productApplication.reserve(new Cart().add(1, 3));
+        // Assert
+        assertTrue(reserva.isValid());
+        assertThrows(IllegalStateException.class, () -> productApplication.sellProduct(1, 1));
+        reserva.release();
+        assertEquals(3.0f * 10.4f, productApplication.sellProduct(1, 3), 0.001f);
+    }
+
+    @Test
+    void confirmarReservaDeveRegistrarEPublicarAVenda() {
+        // Arrange
+        productApplication.append(product1);
+        productApplication.getInventory().setStock(1, 5);
+        CatalogEventStream.Cursor cursor = productApplication.getEventStream().cursor();
+        Reservation reserva = productApplication.reserve(new Cart().add(1, 3));
+        // Act
+        Receipt recibo = productApplication.confirm(reserva);
+        // Assert
+        assertTrue(recibo.isValid());
+        assertEquals(3_120, recibo.totalCents());
+        assertThrows(IllegalStateException.class, () -> productApplication.confirm(reserva));
+        assertEquals(2, productApplication.getInventory().available(1));
+        assertEquals(3, productApplication.getSalesLedger().unitsSold(1));
+        assertEquals(3_120, productApplication.getSalesLedger().revenueCents(1));
+        List<CatalogEvent> eventos = cursor.poll(10);
+        assertEquals(CatalogEvent.Type.SOLD, eventos.get(0).type());
+        assertEquals(3, eventos.get(0).quantity());
+    }
+
+    @Test
+    void reservaNaoDeveAceitarProdutoForaDoCatalogo() {
+        // Arrange
+        productApplication.append(product1);
+        productApplication.getInventory().setStock(1, 5);
+        // Act
+        Reservation reserva = productApplication.reserve(new Cart().add(1, 2).add(99, 1));
+        // Assert
+        assertFalse(reserva.isValid());
+        assertEquals(new CartError(1, 99, 1, CartError.Reason.UNKNOWN_PRODUCT), reserva.errors().get(0));
+        assertEquals(5, productApplication.getInventory().available(1));
+        assertFalse(productApplication.confirm(reserva).isValid());
+    }
+
+    @Test
+    void confirmarReservaDeProdutoRemovidoNaoDeveVenderDeGraca() {
+        // Arrange
+        productApplication.append(product1);
+        productApplication.getInventory().setStock(1, 5);
+        Reservation reserva = productApplication.reserve(new Cart().add(1, 2));
+        productApplication.remove(1);
+        CatalogEventStream.Cursor cursor = productApplication.getEventStream().cursor();
+        // Act
+        Receipt recibo = productApplication.confirm(reserva);
+        // Assert
+        assertEquals(new CartError(0, 1, 2, CartError.Reason.UNKNOWN_PRODUCT), recibo.errors().get(0));
+        assertEquals(Reservation.State.RELEASED, reserva.state());
+        assertEquals(0, productApplication.getSalesLedger().unitsSold(1));
+        assertTrue(cursor.poll(10).isEmpty());
+    }
+
+    @Test
+    void removerProdutoSemImagemDeveDescartarOEstoque() {
+        // Arrange
+        productRepository.append(product1);
+        productApplication.getInventory().setStock(1, 5);
+        // Act
+        assertThrows(NoSuchElementException.class, () -> productApplication.remove(1));
+        // Assert
+        assertFalse(productApplication.exists(1));
+        assertEquals(Inventory.UNTRACKED, productApplication.getInventory().available(1));
+    }
+
+    @Test
+    void checkoutDeveRespeitarOEstoqueERegistrarAVenda() {
+        // Arrange
+        productApplication.append(product1);
+        productApplication.getInventory().setStock(1, 2);
+        // Act
+        Receipt semEstoque = productApplication.checkout(new Cart().add(1, 3));
+        Receipt vendido = productApplication.checkout(new Cart().add(1, 2));
+        // Assert
+        assertEquals(new CartError(0, 1, 3, CartError.Reason.OUT_OF_STOCK), semEstoque.errors().get(0));
+        assertEquals(0, semEstoque.totalCents());
+        assertTrue(vendido.isValid());
+        assertEquals(2_080, vendido.totalCents());
+        assertEquals(0, productApplication.getInventory().available(1));
+        assertEquals(2, productApplication.getSalesLedger().unitsSold(1));
+    }
+
+    @Test
+    void naoDeveAceitarInventarioNulo() {
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class, () -> productApplication.setInventory(null));
+        assertNotNull(productApplication.getInventory());
+    }
+
+    @Test
+    void eventosDeUpdatesConcorrentesDevemSeguirAOrdemDasGravacoes() throws Exception {
+        // Arrange
+        CountDownLatch primeiroGravou = new CountDownLatch(1);
+        CountDownLatch segundoPublicou = new CountDownLatch(1);
+        ProductRepository repositorio = new ProductRepository() {
+            @Override
+            public void update(int id, Product product) {
+                super.update(id, product);
+                if (Thread.currentThread().getName().equals("primeiro")) {
+                    primeiroGravou.countDown();
+                    try {
+                        // sem a ordenação, o segundo update grava e publica aqui no meio
+                        segundoPublicou.await(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        ProductApplication aplicacao = new ProductApplication(repositorio, productService);
+        aplicacao.append(product1);
+        CatalogEventStream.Cursor cursor = aplicacao.getEventStream().cursor();
+        Thread primeiro = new Thread(() -> aplicacao.update(1, new Product(1, "Primeiro", 1f, arquivoImagemFalso1.toString())), "primeiro");
+        // Act
+        primeiro.start();
+        primeiroGravou.await();
+        aplicacao.update(1, new Product(1, "Segundo", 2f, arquivoImagemFalso1.toString()));
+        segundoPublicou.countDown();
+        primeiro.join();
+        List<CatalogEvent> eventos = cursor.poll(10);
+        // Assert
+        assertEquals("Segundo", repositorio.getById(1).getDescription());
+        assertEquals("Segundo", eventos.get(eventos.size() - 1).product().description());
+    }
+
+    @Test
+    void appendsConcorrentesDoMesmoIdNaoDevemSobrescreverAImagem() throws Exception {
+        // Arrange
+        Files.createFile(arquivoImagemFalso2);
+        CountDownLatch primeiroVerificou = new CountDownLatch(1);
+        CountDownLatch segundoGravou = new CountDownLatch(1);
+        ProductRepository repositorio = new ProductRepository() {
+            @Override
+            public boolean exists(int id) {
+                boolean existe = super.exists(id);
+                if (Thread.currentThread().getName().equals("primeiro")) {
+                    primeiroVerificou.countDown();
+                    try {
+                        // sem o lock, o segundo append verifica, copia e grava aqui no meio
+                        segundoGravou.await(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return existe;
+            }
+        };
+        ProductApplication aplicacao = new ProductApplication(repositorio, productService);
+        Thread primeiro = new Thread(() -> aplicacao.append(product1), "primeiro");
+        // Act
+        primeiro.start();
+        primeiroVerificou.await();
+        assertThrows(IllegalArgumentException.class,
+                () -> aplicacao.append(new Product(1, "Segundo", 2f, arquivoImagemFalso2.toString())));
+        segundoGravou.countDown();
+        primeiro.join();
+        // Assert
+        assertEquals("Hot Dog", repositorio.getById(1).getDescription());
+        assertFalse(Files.exists(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO + "1.png")));
+    }
+
+    @Test
+    void appendEUpdateDevemGravarORepositorioUmaVezComOCaminhoFinalDaImagem() throws IOException {
+        // Arrange
+        List<String> gravacoes = new ArrayList<String>();
+        ProductRepository repositorio = new ProductRepository(new HashProductStorage() {
+            @Override
+            public boolean add(Product product) {
+                gravacoes.add("add " + product.getImage());
+                return super.add(product);
+            }
+
+            @Override
+            public boolean update(int id, Product product) {
+                gravacoes.add("update " + product.getImage());
+                return super.update(id, product);
+            }
+        });
+        ProductApplication aplicacao = new ProductApplication(repositorio, productService);
+        Files.createFile(arquivoImagemFalso2);
+        // Act
+        aplicacao.append(product1);
+        aplicacao.update(1, new Product(1, "Super Hot Dog", 20.0f, arquivoImagemFalso2.toString()));
+        // Assert
+        assertEquals(List.of("add " + CAMINHO_BANCO_IMAGENS_DESTINO + "1.jpg",
+                "update " + CAMINHO_BANCO_IMAGENS_DESTINO + "1.png"), gravacoes);
+    }
+
+    @Test
+    void appendComIdExistenteNaoDeveSubstituirImagemDoProdutoAtual() throws IOException {
+        // Arrange
+        productApplication.append(product1);
+        Path imagemAtual = Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO + "1.jpg");
+        byte[] conteudoAtual = Files.readAllBytes(imagemAtual);
+        Files.write(arquivoImagemFalso1, new byte[]{9, 9, 9});
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> productApplication.append(new Product(1, "Outro", 1f, arquivoImagemFalso1.toString())));
+        assertArrayEquals(conteudoAtual, Files.readAllBytes(imagemAtual));
+    }
+}
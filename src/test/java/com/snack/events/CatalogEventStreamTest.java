@@ -0,0 +1,124 @@
+package com.snack.events;
+
+import com.snack.entities.ProductRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogEventStreamTest {
+    private static ProductRecord produto(int id) {
+        return new ProductRecord(id, "Produto " + id, id, null);
+    }
+
+    @Test
+    void cadaCursorRecebeTodosOsEventosEmOrdem() {
+        // Arrange
+        CatalogEventStream stream = new CatalogEventStream(16);
+        CatalogEventStream.Cursor primeiro = stream.cursor();
+        CatalogEventStream.Cursor segundo = stream.cursor();
+
+        // Act
+        stream.publish(CatalogEvent.Type.APPENDED, 1, produto(1), 0);
+        stream.publish(CatalogEvent.Type.SOLD, 1, produto(1), 3);
+        stream.publish(CatalogEvent.Type.REMOVED, 1, null, 0);
+        List<CatalogEvent> doPrimeiro = primeiro.poll(10);
+        List<CatalogEvent> doSegundo = segundo.poll(10);
+
+        // Assert
+        assertEquals(3, doPrimeiro.size());
+        assertEquals(doPrimeiro, doSegundo);
+        assertEquals(List.of(0L, 1L, 2L), doPrimeiro.stream().map(CatalogEvent::sequence).toList());
+        assertEquals(CatalogEvent.Type.SOLD, doPrimeiro.get(1).type());
+        assertEquals(3, doPrimeiro.get(1).quantity());
+        assertNull(doPrimeiro.get(2).product());
+        assertEquals(0, primeiro.lag());
+    }
+
+    @Test
+    void cursorRetomaAPartirDaPosicaoSalva() {
+        // Arrange
+        CatalogEventStream stream = new CatalogEventStream(16);
+        CatalogEventStream.Cursor cursor = stream.cursor();
+        for (int id = 0; id < 5; id++) {
+            stream.publish(CatalogEvent.Type.APPENDED, id, produto(id), 0);
+        }
+        cursor.poll(2);
+        long posicaoSalva = cursor.position();
+
+        // Act
+        List<CatalogEvent> retomados = stream.cursor(posicaoSalva).poll(10);
+
+        // Assert
+        assertEquals(2, posicaoSalva);
+        assertEquals(List.of(2, 3, 4), retomados.stream().map(CatalogEvent::productId).toList());
+    }
+
+    @Test
+    void consumidorLentoPerdeOsEventosMaisAntigosSemBloquearOProdutor() {
+        // Arrange
+        CatalogEventStream stream = new CatalogEventStream(8);
+        CatalogEventStream.Cursor lento = stream.cursor();
+
+        // Act
+        for (int id = 0; id < 20; id++) {
+            stream.publish(CatalogEvent.Type.APPENDED, id, produto(id), 0);
+        }
+        List<CatalogEvent> recebidos = lento.poll(100);
+
+        // Assert
+        assertEquals(12, lento.missed());
+        assertEquals(8, recebidos.size());
+        assertEquals(12, recebidos.get(0).sequence());
+        assertEquals(19, recebidos.get(7).sequence());
+        assertEquals(12, stream.oldest());
+    }
+
+    @Test
+    void cursorNaoPodeComecarDepoisDoFimDoStream() {
+        // Arrange
+        CatalogEventStream stream = new CatalogEventStream(8);
+
+        // Act + Assert
+        assertThrows(IllegalArgumentException.class, () -> stream.cursor(1));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogEventStream(10));
+    }
+
+    @Test
+    void produtoresConcorrentesGeramSequenciasSemBuracos() throws InterruptedException {
+        // Arrange
+        CatalogEventStream stream = new CatalogEventStream(1 << 14);
+        CatalogEventStream.Cursor cursor = stream.cursor();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch fim = new CountDownLatch(4);
+
+        // Act
+        for (int produtor = 0; produtor < 4; produtor++) {
+            int base = produtor * 1000;
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    stream.publish(CatalogEvent.Type.UPDATED, base + i, produto(base + i), 0);
+                }
+                fim.countDown();
+            });
+        }
+        assertTrue(fim.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        List<CatalogEvent> eventos = new ArrayList<CatalogEvent>();
+        cursor.poll(eventos::add, Integer.MAX_VALUE);
+
+        // Assert
+        assertEquals(4000, eventos.size());
+        for (int i = 0; i < eventos.size(); i++) {
+            assertEquals(i, eventos.get(i).sequence());
+        }
+        assertEquals(4000, eventos.stream().map(CatalogEvent::productId).distinct().count());
+        assertEquals(0, cursor.missed());
+    }
+}
@@ -3,11 +3,14 @@ package com.snack.facade; // <- Pacote da camada Facade
 import com.snack.applications.ProductApplication;
 import com.snack.entities.Product;
 import com.snack.repositories.ProductRepository;
+import com.snack.services.ImageStorageConfig;
 import com.snack.services.ProductService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -17,8 +20,10 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProductFacadeTest {
-    private final String CAMINHO_IMAGENS_ORIGEM_TESTE = "C:\\temp_testes\\";
-    private final String CAMINHO_BANCO_IMAGENS_DESTINO = "C:\\Users\\aluno\\BancoImagens\\";
+    @TempDir
+    Path pastaTemporaria;
+    private String CAMINHO_IMAGENS_ORIGEM_TESTE;
+    private String CAMINHO_BANCO_IMAGENS_DESTINO;
     private ProductRepository productRepository;
     private ProductService productService;
     private ProductApplication productApplication;
@@ -28,13 +33,15 @@ public class ProductFacadeTest {
 
     @BeforeEach
     void setUp() throws IOException {
+        CAMINHO_IMAGENS_ORIGEM_TESTE = pastaTemporaria.resolve("temp_testes") + File.separator;
+        CAMINHO_BANCO_IMAGENS_DESTINO = pastaTemporaria.resolve("BancoImagens") + File.separator;
         Files.createDirectories(Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE));
         Files.createDirectories(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO));
         arquivoImagemFalso1 = Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE + "fake1.jpg");
         Files.deleteIfExists(arquivoImagemFalso1);
         Files.createFile(arquivoImagemFalso1);
         productRepository = new ProductRepository();
-        productService = new ProductService();
+        productService = new ProductService(new ImageStorageConfig(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO)));
         productApplication = new ProductApplication(productRepository, productService);
         productFacade = new ProductFacade(productApplication);
         product1 = new Product(1, "Hot Dog", 10.4f, arquivoImagemFalso1.toString());
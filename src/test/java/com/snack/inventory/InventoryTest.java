@@ -0,0 +1,130 @@
+package com.snack.inventory;
+
+import com.snack.entities.Cart;
+import com.snack.entities.CartError;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryTest {
+    @Test
+    void vendaSoBaixaOEstoqueQuandoHaUnidadesSuficientes() {
+        // Arrange
+        Inventory inventory = new Inventory();
+        inventory.setStock(1, 5);
+
+        // Act
+        boolean primeira = inventory.tryTake(1, 3);
+        boolean segunda = inventory.tryTake(1, 3);
+
+        // Assert
+        assertTrue(primeira);
+        assertFalse(segunda);
+        assertEquals(2, inventory.available(1));
+    }
+
+    @Test
+    void produtoSemEstoqueCadastradoVendeSemLimite() {
+        // Arrange
+        Inventory inventory = new Inventory();
+
+        // Act + Assert
+        assertTrue(inventory.tryTake(7, 1_000));
+        assertFalse(inventory.isTracked(7));
+        assertEquals(Inventory.UNTRACKED, inventory.available(7));
+        assertThrows(IllegalArgumentException.class, () -> inventory.tryTake(7, 0));
+    }
+
+    @Test
+    void reposicaoSomaAoEstoqueDisponivel() {
+        // Arrange
+        Inventory inventory = new Inventory();
+
+        // Act
+        inventory.restock(1, 10);
+        long depois = inventory.restock(1, 5);
+
+        // Assert
+        assertEquals(15, depois);
+        assertThrows(IllegalArgumentException.class, () -> inventory.restock(1, -1));
+    }
+
+    @Test
+    void reservaSeguraAsUnidadesAteSerConfirmadaOuLiberada() {
+        // Arrange
+        Inventory inventory = new Inventory();
+        inventory.setStock(1, 10);
+        inventory.setStock(2, 4);
+        Reservation confirmada = inventory.reserve(new Cart().add(1, 3).add(2, 4).add(99, 1));
+        Reservation liberada = inventory.reserve(new Cart().add(1, 2));
+
+        // Act
+        boolean confirmou = confirmada.confirm();
+        boolean liberou = liberada.release();
+
+        // Assert
+        assertTrue(confirmou);
+        assertTrue(liberou);
+        assertFalse(confirmada.release());
+        assertEquals(Reservation.State.CONFIRMED, confirmada.state());
+        assertEquals(7, inventory.available(1));
+        assertEquals(0, inventory.available(2));
+        assertEquals(0, inventory.reserved(1));
+    }
+
+    @Test
+    void reservaComLinhaSemEstoqueNaoSeguraNada() {
+        // Arrange
+        Inventory inventory = new Inventory();
+        inventory.setStock(1, 10);
+        inventory.setStock(2, 1);
+
+        // Act
+        Reservation reserva = inventory.reserve(new Cart().add(1, 3).add(2, 2).add(1, -1));
+
+        // Assert
+        assertFalse(reserva.isValid());
+        assertEquals(2, reserva.errors().size());
+        assertEquals(new CartError(1, 2, 2, CartError.Reason.OUT_OF_STOCK), reserva.errors().get(0));
+        assertEquals(CartError.Reason.INVALID_QUANTITY, reserva.errors().get(1).reason());
+        assertEquals(Reservation.State.RELEASED, reserva.state());
+        assertFalse(reserva.confirm());
+        assertEquals(10, inventory.available(1));
+        assertEquals(1, inventory.available(2));
+        assertEquals(0, inventory.reserved(1));
+    }
+
+    @Test
+    void vendasConcorrentesDoMesmoProdutoNuncaPassamDoEstoque() throws InterruptedException {
+        // Arrange
+        Inventory inventory = new Inventory();
+        inventory.setStock(1, 10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch fim = new CountDownLatch(8);
+        AtomicInteger vendidas = new AtomicInteger();
+
+        // Act
+        for (int terminal = 0; terminal < 8; terminal++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    if (inventory.tryTake(1, 1)) {
+                        vendidas.incrementAndGet();
+                    }
+                }
+                fim.countDown();
+            });
+        }
+        assertTrue(fim.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Assert
+        assertEquals(10_000, vendidas.get());
+        assertEquals(0, inventory.available(1));
+    }
+}
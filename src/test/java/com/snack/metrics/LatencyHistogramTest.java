@@ -0,0 +1,48 @@
+package com.snack.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    public void setup() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void bucketsDevemTerErroRelativoMenorQueSeisPorCento() {
+        for (long valor = 1; valor < Long.MAX_VALUE / 2; valor = valor * 3 + 1) {
+            // Act
+            long inicioDoBucket = LatencyHistogram.lowestValueOf(LatencyHistogram.bucketOf(valor));
+            // Assert
+            assertTrue(inicioDoBucket <= valor);
+            assertTrue(valor - inicioDoBucket <= valor / 16, "valor " + valor);
+        }
+    }
+
+    @Test
+    public void deveCalcularPercentis() {
+        // Arrange
+        for (int i = 1; i <= 1_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        // Act
+        long p50 = histogram.percentile(50);
+        long p99 = histogram.percentile(99);
+        // Assert
+        assertEquals(1_000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_000, p50, 500_000 / 16.0);
+        assertEquals(990_000, p99, 990_000 / 16.0);
+    }
+
+    @Test
+    public void histogramaVazioDeveRetornarZero() {
+        assertEquals(0, histogram.percentile(99));
+        assertEquals(0, histogram.count());
+    }
+}
@@ -0,0 +1,67 @@
+package com.snack.metrics;
+
+import com.snack.applications.ProductApplication;
+import com.snack.entities.Product;
+import com.snack.facade.ProductFacade;
+import com.snack.repositories.ProductRepository;
+import com.snack.services.ImageStorageConfig;
+import com.snack.services.ProductService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+    @TempDir
+    Path pastaTemporaria;
+
+    @Test
+    public void deveRegistrarOperacoesEmTodasAsCamadas() {
+        // Arrange
+        ProductFacade productFacade = new ProductFacade(new ProductApplication(new ProductRepository(),
+                new ProductService(new ImageStorageConfig(pastaTemporaria))));
+        long antesFacade = Metrics.get().getCounts().getOrDefault("facade.sellProduct", 0L);
+        long antesRepositorio = Metrics.get().getCounts().getOrDefault("repository.getById", 0L);
+        productFacade.append(new Product(1, "Hot Dog", 10f, pastaTemporaria.resolve("inexistente.jpg").toString()));
+        // Act
+        productFacade.sellProduct(1, 2);
+        productFacade.sellProduct(1, 3);
+        // Assert
+        assertEquals(antesFacade + 2, Metrics.get().getCounts().get("facade.sellProduct"));
+        assertEquals(antesRepositorio + 2, Metrics.get().getCounts().get("repository.getById"));
+        assertTrue(Metrics.get().getReport().contains("application.sellProduct"));
+    }
+
+    @Test
+    public void operacoesQueFalhamTambemDevemSerCronometradas() {
+        // Arrange
+        ProductFacade productFacade = new ProductFacade(new ProductApplication(new ProductRepository(),
+                new ProductService(new ImageStorageConfig(pastaTemporaria))));
+        long antesFacade = Metrics.get().getCounts().getOrDefault("facade.sellProduct", 0L);
+        long antesAplicacao = Metrics.get().getCounts().getOrDefault("application.update", 0L);
+        // Act
+        assertThrows(NoSuchElementException.class, () -> productFacade.sellProduct(42, 1));
+        assertThrows(NoSuchElementException.class, () -> productFacade.update(42, new Product(42, "X", 1f, "")));
+        // Assert
+        assertEquals(antesFacade + 1, Metrics.get().getCounts().get("facade.sellProduct"));
+        assertEquals(antesAplicacao + 1, Metrics.get().getCounts().get("application.update"));
+    }
+
+    @Test
+    public void deveExporViaJmx() throws Exception {
+        // Arrange
+        Metrics.timer("teste.jmx").stop(Metrics.timer("teste.jmx").start());
+        // Act
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+        Object report = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName("com.snack:type=Metrics"), "Report");
+        // Assert
+        assertTrue(report.toString().contains("teste.jmx"));
+    }
+}
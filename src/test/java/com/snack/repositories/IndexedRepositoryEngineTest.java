@@ -0,0 +1,8 @@
+package com.snack.repositories;
+
+public class IndexedRepositoryEngineTest extends RepositoryEngineContractTest {
+    @Override
+    protected RepositoryEngine engine() {
+        return RepositoryEngine.INDEXED;
+    }
+}
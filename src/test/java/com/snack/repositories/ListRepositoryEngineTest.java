@@ -0,0 +1,8 @@
+package com.snack.repositories;
+
+public class ListRepositoryEngineTest extends RepositoryEngineContractTest {
+    @Override
+    protected RepositoryEngine engine() {
+        return RepositoryEngine.LIST;
+    }
+}
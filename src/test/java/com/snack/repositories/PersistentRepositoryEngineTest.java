@@ -0,0 +1,30 @@
+package com.snack.repositories;
+
+import com.snack.entities.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PersistentRepositoryEngineTest extends RepositoryEngineContractTest {
+    @Override
+    protected RepositoryEngine engine() {
+        return RepositoryEngine.PERSISTENT;
+    }
+
+    @Test
+    public void catalogoDeveSobreviverAoFechamento() throws IOException {
+        // Arrange
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, ""));
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        productRepository.remove(2);
+        productRepository.close();
+        // Act
+        productRepository = engine().open(diretorio);
+        // Assert
+        assertEquals(1, productRepository.getAll().size());
+        assertEquals(1, productRepository.searchByDescriptionPrefix("hot").size());
+        assertFalse(productRepository.exists(2));
+    }
+}
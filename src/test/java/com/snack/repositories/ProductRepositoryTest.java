@@ -4,8 +4,19 @@ import com.snack.entities.Product;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.snack.repositories.storage.ConcurrentProductStorage;
+import com.snack.repositories.storage.HashProductStorage;
+import com.snack.repositories.storage.IntHashProductStorage;
+import com.snack.repositories.storage.OffHeapProductStorage;
+import com.snack.repositories.storage.ProductStorage;
+import com.snack.repositories.storage.SnapshotProductStorage;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -100,11 +111,25 @@ public class ProductRepositoryTest {
         //Arrange
         productRepository.append(product1);
         Product p = new Product(1, "Cachorro Quente", 10.4f, "");
-        productRepository.append(p);
+        //Act e Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            productRepository.append(p);
+        });
+        assertEquals("Hot Dog", productRepository.getById(1).getDescription());
+    }
+    @Test
+    public void deveManterOrdemDeInsercaoAposRemocao(){
+        //Arrange
+        productRepository.append(product1);
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        productRepository.append(new Product(3, "Refrigerante", 5f, ""));
         //Act
-        boolean result = product1.getId() == p.getId();
+        productRepository.remove(2);
+        List<Product> todosOsProdutos = productRepository.getAll();
         //Assert
-        assertTrue(result);
+        assertEquals(2, todosOsProdutos.size());
+        assertEquals(1, todosOsProdutos.get(0).getId());
+        assertEquals(3, todosOsProdutos.get(1).getId());
     }
     @Test
     public void confirmaRetornoListaVaziaAoInicializar(){
@@ -113,5 +138,281 @@ public class ProductRepositoryTest {
         //Assert
         assertTrue(listavazia.isEmpty());
     }
-
+    @Test
+    public void deveAdicionarLoteDeProdutos(){
+        //Arrange
+        List<Product> lote = List.of(product1, new Product(2, "X-Burger", 12.5f, ""));
+        //Act
+        productRepository.appendAll(lote);
+        //Assert
+        assertEquals(2, productRepository.getAll().size());
+        assertEquals(2, productRepository.getByIds(List.of(1, 2, 3)).size());
+    }
+    @Test
+    public void naoDeveAdicionarNadaSeLoteTiverIdDuplicado(){
+        //Arrange
+        List<Product> lote = List.of(product1, new Product(1, "Cachorro Quente", 10.4f, ""));
+        //Act e Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            productRepository.appendAll(lote);
+        });
+        assertTrue(productRepository.getAll().isEmpty());
+    }
+    @Test
+    public void naoDeveAtualizarNadaSeLoteTiverProdutoInexistente(){
+        //Arrange
+        productRepository.append(product1);
+        List<Product> lote = List.of(new Product(1, "Cachorro Quente", 10.4f, ""), new Product(2, "X-Burger", 12.5f, ""));
+        //Act e Assert
+        assertThrows(NoSuchElementException.class, () -> {
+            productRepository.updateAll(lote);
+        });
+        assertEquals("Hot Dog", productRepository.getById(1).getDescription());
+    }
+    @Test
+    public void deveRemoverLoteIgnorandoInexistentes(){
+        //Arrange
+        productRepository.append(product1);
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        //Act
+        productRepository.removeAll(List.of(1, 99));
+        //Assert
+        assertFalse(productRepository.exists(1));
+        assertTrue(productRepository.exists(2));
+    }
+    @Test
+    public void deveFiltrarPorFaixaDePrecoEPrefixoDaDescricao(){
+        //Arrange
+        productRepository.append(product1);
+        productRepository.append(new Product(2, "hot Burger", 25f, ""));
+        productRepository.append(new Product(3, "X-Burger", 12.5f, ""));
+        ProductFilter filtro = ProductFilter.ALL.withPriceBetween(10f, 20f).withDescriptionPrefix("HOT");
+        //Act
+        List<Product> encontrados = productRepository.stream(filtro).collect(Collectors.toList());
+        //Assert
+        assertEquals(1, encontrados.size());
+        assertEquals(1, encontrados.get(0).getId());
+    }
+    @Test
+    public void devePaginarCatalogoComCursor(){
+        //Arrange
+        for (int id = 1; id <= 25; id++) {
+            productRepository.append(new Product(id, "Produto " + id, id, ""));
+        }
+        ProductFilter filtro = ProductFilter.ALL.withDescriptionPrefix("Produto");
+        List<Integer> ids = new ArrayList<Integer>();
+        long cursor = ProductPage.FIRST;
+        int paginas = 0;
+        //Act
+        ProductPage pagina;
+        do {
+            pagina = productRepository.getPage(filtro, cursor, 10);
+            pagina.products().forEach(p -> ids.add(p.getId()));
+            cursor = pagina.nextCursor();
+            paginas++;
+        } while (pagina.hasNext());
+        //Assert
+        assertEquals(3, paginas);
+        assertEquals(25, ids.size());
+        assertEquals(1, ids.get(0));
+        assertEquals(25, ids.get(24));
+    }
+    @Test
+    public void remocaoAntesDoCursorNaoDevePularProdutoNaProximaPagina(){
+        //Arrange
+        for (int id = 1; id <= 20; id++) {
+            productRepository.append(new Product(id, "Produto " + id, id, ""));
+        }
+        ProductPage primeira = productRepository.getPage(ProductFilter.ALL, ProductPage.FIRST, 10);
+        //Act
+        productRepository.remove(3);
+        productRepository.append(new Product(30, "Produto 30", 30, ""));
+        ProductPage segunda = productRepository.getPage(ProductFilter.ALL, primeira.nextCursor(), 10);
+        ProductPage terceira = productRepository.getPage(ProductFilter.ALL, segunda.nextCursor(), 10);
+        //Assert
+        assertEquals(11, segunda.products().get(0).getId());
+        assertEquals(20, segunda.products().get(9).getId());
+        assertEquals(List.of(30), terceira.products().stream().map(Product::getId).toList());
+        assertFalse(terceira.hasNext());
+    }
+    @Test
+    public void paginasComESemIndiceDevemSerIguais(){
+        //Arrange
+        ProductRepository indexado = new ProductRepository(new HashProductStorage(), true);
+        for (int id = 40; id >= 1; id--) {
+            Product produto = new Product(id, (id % 3 == 0 ? "Suco " : "Produto ") + id, id, "");
+            productRepository.append(produto);
+            indexado.append(new Product(id, produto.getDescription(), id, ""));
+        }
+        ProductFilter filtro = ProductFilter.ALL.withDescriptionPrefix("Produto");
+        //Act
+        ProductPage semIndice = productRepository.getPage(filtro, 5, 4);
+        ProductPage comIndice = indexado.getPage(filtro, 5, 4);
+        //Assert
+        assertEquals(List.of(5, 7, 8, 10), semIndice.products().stream().map(Product::getId).toList());
+        assertEquals(List.of(5, 7, 8, 10), comIndice.products().stream().map(Product::getId).toList());
+        assertEquals(11, semIndice.nextCursor());
+        assertEquals(11, comIndice.nextCursor());
+    }
+    @Test
+    public void paginaNaoDeveAceitarTamanhoInvalido(){
+        //Act e Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            productRepository.getPage(ProductFilter.ALL, ProductPage.FIRST, 0);
+        });
+    }
+    @Test
+    public void varreduraParalelaDeveVerTodosOsProdutosEmOrdem(){
+        //Arrange
+        List<ProductStorage> storages = List.of(new HashProductStorage(), new IntHashProductStorage(),
+                new OffHeapProductStorage(), new ConcurrentProductStorage(), new SnapshotProductStorage());
+        for (ProductStorage storage : storages) {
+            ProductRepository repositorio = new ProductRepository(storage);
+            for (int id = 0; id < 10_000; id++) {
+                repositorio.append(new Product(id, "Produto", 1f, ""));
+            }
+            repositorio.removeAll(List.of(0, 5_000));
+            //Act
+            List<Integer> ids = repositorio.parallelStream(ProductFilter.ALL).map(Product::getId).collect(Collectors.toList());
+            //Assert
+            assertEquals(9_998, ids.size(), storage.getClass().getSimpleName());
+            assertEquals(1, ids.get(0));
+            assertEquals(9_999, ids.get(9_997));
+        }
+    }
+    @Test
+    public void deveBuscarPorPrefixoIgnorandoMaiusculas(){
+        //Arrange
+        productRepository.append(product1);
+        productRepository.append(new Product(2, "hot Burger", 25f, ""));
+        productRepository.append(new Product(3, "X-Burger", 12.5f, ""));
+        //Act
+        List<Product> encontrados = productRepository.searchByDescriptionPrefix("HOT");
+        //Assert
+        assertEquals(2, encontrados.size());
+        assertEquals(2, encontrados.get(0).getId());
+        assertEquals(1, encontrados.get(1).getId());
+    }
+    @Test
+    public void deveBuscarPorPalavrasDaDescricao(){
+        //Arrange
+        productRepository.append(new Product(1, "Suco de Laranja", 6f, ""));
+        productRepository.append(new Product(2, "Bolo de laranja", 8f, ""));
+        productRepository.append(new Product(3, "Suco de Uva", 6f, ""));
+        //Act
+        List<Product> laranja = productRepository.searchByWords("laranja");
+        List<Product> sucoDeLaranja = productRepository.searchByWords("SUCO laranja");
+        //Assert
+        assertEquals(2, laranja.size());
+        assertEquals(1, sucoDeLaranja.size());
+        assertEquals(1, sucoDeLaranja.get(0).getId());
+        assertTrue(productRepository.searchByWords("abacaxi").isEmpty());
+    }
+    @Test
+    public void deveBuscarPorFaixaDePrecoOrdenadoPorPreco(){
+        //Arrange
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, ""));
+        productRepository.append(new Product(2, "Refrigerante", 5f, ""));
+        productRepository.append(new Product(3, "X-Burger", 12.5f, ""));
+        //Act
+        List<Product> encontrados = productRepository.getByPriceRange(5f, 11f);
+        //Assert
+        assertEquals(2, encontrados.size());
+        assertEquals(2, encontrados.get(0).getId());
+        assertEquals(1, encontrados.get(1).getId());
+    }
+    @Test
+    public void indicesDevemAcompanharAtualizacaoERemocao(){
+        //Arrange
+        ProductRepository repositorio = new ProductRepository(new HashProductStorage(), true);
+        repositorio.append(product1);
+        repositorio.append(new Product(2, "X-Burger", 12.5f, ""));
+        repositorio.searchByWords("burger");
+        //Act
+        repositorio.update(1, new Product(1, "Cachorro Quente", 20f, ""));
+        repositorio.removeAll(List.of(2));
+        //Assert
+        assertTrue(repositorio.searchByDescriptionPrefix("hot").isEmpty());
+        assertTrue(repositorio.searchByWords("burger").isEmpty());
+        assertEquals(1, repositorio.searchByWords("quente").size());
+        assertTrue(repositorio.getByPriceRange(10f, 11f).isEmpty());
+        assertEquals(1, repositorio.getByPriceRange(20f, 20f).size());
+    }
+    @Test
+    public void deveIndexarProdutosJaExistentesNoStorage(){
+        //Arrange
+        ProductStorage storage = new HashProductStorage();
+        storage.add(product1);
+        //Act
+        ProductRepository repositorio = new ProductRepository(storage, true);
+        //Assert
+        assertEquals(1, repositorio.searchByDescriptionPrefix("Hot").size());
+    }
+    @Test
+    public void indiceSoDeveSerConstruidoNaPrimeiraBusca(){
+        //Arrange
+        AtomicInteger varreduras = new AtomicInteger();
+        ProductStorage storage = new HashProductStorage() {
+            @Override
+            public Spliterator<Product> spliterator() {
+                varreduras.incrementAndGet();
+                return super.spliterator();
+            }
+        };
+        storage.add(product1);
+        ProductRepository repositorio = new ProductRepository(storage, true);
+        int varredurasAntesDaBusca = varreduras.get();
+        //Act
+        repositorio.searchByDescriptionPrefix("hot");
+        repositorio.searchByWords("dog");
+        repositorio.getByPriceRange(0f, 100f);
+        //Assert
+        assertEquals(0, varredurasAntesDaBusca);
+        assertEquals(1, varreduras.get());
+    }
+    @Test
+    public void buscaComIndiceEPorVarreduraDevemDarOMesmoResultado(){
+        //Arrange
+        ProductRepository indexado = new ProductRepository(new HashProductStorage(), true);
+        for (int id = 0; id < 200; id++) {
+            Product produto = new Product(id, (id % 3 == 0 ? "Suco de " : "Bolo de ") + (id % 7) + " sabor", id % 13, "");
+            productRepository.append(produto);
+            indexado.append(new Product(id, produto.getDescription(), produto.getPrice(), ""));
+        }
+        //Act + Assert
+        assertEquals(ids(productRepository.searchByDescriptionPrefix("SUCO")), ids(indexado.searchByDescriptionPrefix("SUCO")));
+        assertEquals(ids(productRepository.searchByWords("bolo 3")), ids(indexado.searchByWords("bolo 3")));
+        assertEquals(ids(productRepository.getByPriceRange(2f, 5f)), ids(indexado.getByPriceRange(2f, 5f)));
+        assertFalse(ids(indexado.getByPriceRange(2f, 5f)).isEmpty());
+    }
+    private static List<Integer> ids(List<Product> produtos) {
+        return produtos.stream().map(Product::getId).toList();
+    }
+    @Test
+    public void atualizacoesConcorrentesDevemDeixarIndiceIgualAoStorage() throws InterruptedException {
+        //Arrange
+        ProductRepository repositorio = new ProductRepository(new ConcurrentProductStorage(), true);
+        repositorio.append(product1);
+        repositorio.searchByWords("hot");
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            String descricao = "Produto" + t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    repositorio.update(1, new Product(1, descricao, 1f, ""));
+                }
+            });
+        }
+        //Act
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        //Assert
+        String atual = repositorio.getById(1).getDescription();
+        assertEquals(1, repositorio.searchByDescriptionPrefix("produto").size());
+        assertEquals(1, repositorio.searchByWords(atual).size());
+    }
 }
@@ -1,21 +1,28 @@
 package com.snack.repositories;
 
 import com.snack.entities.Product;
+import com.snack.services.ImageStorageConfig;
 import com.snack.services.ProductService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 public class ProductServiceTest {
-    private final String CAMINHO_IMAGENS_ORIGEM_TESTE = "C:\\temp_testes\\";
-    private final String CAMINHO_BANCO_IMAGENS_DESTINO = "C:\\Users\\aluno\\BancoImagens\\";
+    @TempDir
+    Path pastaTemporaria;
+    private String CAMINHO_IMAGENS_ORIGEM_TESTE;
+    private String CAMINHO_BANCO_IMAGENS_DESTINO;
 
     private ProductService productService;
     private Path arquivoImagemFalso;
@@ -24,7 +31,9 @@ public class ProductServiceTest {
     @BeforeEach
     void setUp() throws IOException {
         // Arrange
-        productService = new ProductService();
+        CAMINHO_IMAGENS_ORIGEM_TESTE = pastaTemporaria.resolve("temp_testes") + File.separator;
+        CAMINHO_BANCO_IMAGENS_DESTINO = pastaTemporaria.resolve("BancoImagens") + File.separator;
+        productService = new ProductService(new ImageStorageConfig(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO)));
         Files.createDirectories(Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE));
         Files.createDirectories(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO));
         arquivoImagemFalso = Paths.get(CAMINHO_IMAGENS_ORIGEM_TESTE + "fake.jpg");
@@ -102,4 +111,15 @@ public class ProductServiceTest {
         assertNotNull(caminhoEncontrado);
         assertEquals(arquivoEsperado.toString(), caminhoEncontrado);
     }
+    @Test
+    public void deveRetornarResultadoPorItemAoSalvarLote() {
+        // Arrange
+        Product semImagem = new Product(2, "Sem Imagem", 5f, CAMINHO_IMAGENS_ORIGEM_TESTE + "imagem_fantasma.jpg");
+        // Act
+        Map<Integer, Boolean> resultados = productService.saveAll(List.of(product, semImagem));
+        // Assert
+        assertTrue(resultados.get(1));
+        assertFalse(resultados.get(2));
+        assertTrue(Files.exists(Paths.get(CAMINHO_BANCO_IMAGENS_DESTINO + "1.jpg")));
+    }
 }
@@ -0,0 +1,190 @@
+package com.snack.repositories;
+
+import com.snack.entities.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link RepositoryEngine} must share, derived from {@link ProductRepositoryTest}. Each engine
+ * runs it through a subclass that only names the engine.
+ */
+public abstract class RepositoryEngineContractTest {
+    @TempDir
+    protected Path diretorio;
+    protected CatalogRepository productRepository;
+    private Product product1;
+
+    protected abstract RepositoryEngine engine();
+
+    protected boolean searchIndex() {
+        return false;
+    }
+
+    @BeforeEach
+    public void setup() throws IOException {
+        productRepository = engine().open(diretorio, searchIndex());
+        product1 = new Product(1, "Hot Dog", 10.4f, "");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        productRepository.close();
+    }
+
+    @Test
+    public void deveRecuperarProdutoPorId(){
+        // Arrange
+        productRepository.append(product1);
+        // Act
+        Product productRetornado = productRepository.getById(1);
+        // Assert
+        assertEquals(product1.getId(), productRetornado.getId());
+        assertEquals("Hot Dog", productRetornado.getDescription());
+    }
+    @Test
+    public void deveConfirmarProdutoExistente(){
+        // Arrange
+        productRepository.append(product1);
+        //Act
+        boolean resultado = productRepository.exists(product1.getId());
+        //Assert
+        assertTrue(resultado);
+        assertFalse(productRepository.exists(2));
+    }
+    @Test
+    public void deveRemoverProdutoDoRepositorio(){
+        // Arrange
+        productRepository.append(product1);
+        //Act
+        productRepository.remove(product1.getId());
+        //Assert
+        assertFalse(productRepository.exists(product1.getId()));
+    }
+    @Test
+    public void deveAtualizarProduto(){
+        // Arrange
+        productRepository.append(product1);
+        Product p = new Product(1, "Cachorro Quente", 11f, "1.jpg");
+        //Act
+        productRepository.update(product1.getId(), p);
+        //Assert
+        Product atualizado = productRepository.getById(1);
+        assertEquals(p.getDescription(), atualizado.getDescription());
+        assertEquals(11f, atualizado.getPrice());
+        assertEquals("1.jpg", atualizado.getImage());
+    }
+    @Test
+    public void deveAtualizarImagem(){
+        // Arrange
+        productRepository.append(product1);
+        //Act
+        productRepository.updateImage(1, "1.png");
+        //Assert
+        assertEquals("1.png", productRepository.getById(1).getImage());
+        assertEquals("Hot Dog", productRepository.getById(1).getDescription());
+    }
+    @Test
+    public void deveManterOrdemDeInsercao(){
+        // Arrange
+        productRepository.append(new Product(3, "Refrigerante", 5f, ""));
+        productRepository.append(product1);
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        //Act
+        List<Product> produtos = productRepository.getAll();
+        //Assert
+        assertEquals(List.of(3, 1, 2), produtos.stream().map(Product::getId).collect(Collectors.toList()));
+    }
+    @Test
+    public void naoDeveAceitarIdDuplicado(){
+        // Arrange
+        productRepository.append(product1);
+        //Act e Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            productRepository.append(new Product(1, "Cachorro Quente", 10.4f, ""));
+        });
+        assertEquals("Hot Dog", productRepository.getById(1).getDescription());
+    }
+    @Test
+    public void deveLancarExcecaoParaIdInexistente(){
+        //Act e Assert
+        assertThrows(NoSuchElementException.class, () -> productRepository.getById(99));
+        assertThrows(NoSuchElementException.class, () -> productRepository.update(99, product1));
+    }
+    @Test
+    public void naoDeveIncluirNadaSeLoteTiverIdRepetido(){
+        //Arrange
+        List<Product> lote = List.of(product1, new Product(1, "Cachorro Quente", 10.4f, ""));
+        //Act e Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            productRepository.appendAll(lote);
+        });
+        assertTrue(productRepository.getAll().isEmpty());
+    }
+    @Test
+    public void naoDeveAtualizarNadaSeLoteTiverProdutoInexistente(){
+        //Arrange
+        productRepository.append(product1);
+        List<Product> lote = List.of(new Product(1, "Cachorro Quente", 10.4f, ""), new Product(2, "X-Burger", 12.5f, ""));
+        //Act e Assert
+        assertThrows(NoSuchElementException.class, () -> {
+            productRepository.updateAll(lote);
+        });
+        assertEquals("Hot Dog", productRepository.getById(1).getDescription());
+    }
+    @Test
+    public void deveRemoverLoteIgnorandoInexistentes(){
+        //Arrange
+        productRepository.appendAll(List.of(product1, new Product(2, "X-Burger", 12.5f, "")));
+        //Act
+        productRepository.removeAll(List.of(1, 99));
+        //Assert
+        assertFalse(productRepository.exists(1));
+        assertTrue(productRepository.exists(2));
+        assertEquals(1, productRepository.getByIds(List.of(1, 2, 99)).size());
+    }
+    @Test
+    public void devePaginarEFiltrarCatalogo(){
+        //Arrange
+        for (int id = 1; id <= 25; id++) {
+            productRepository.append(new Product(id, "Produto " + id, id, ""));
+        }
+        ProductFilter filtro = ProductFilter.ALL.withPriceBetween(1f, 20f);
+        List<Integer> ids = new ArrayList<Integer>();
+        long cursor = ProductPage.FIRST;
+        //Act
+        ProductPage pagina;
+        do {
+            pagina = productRepository.getPage(filtro, cursor, 10);
+            pagina.products().forEach(p -> ids.add(p.getId()));
+            cursor = pagina.nextCursor();
+        } while (pagina.hasNext());
+        //Assert
+        assertEquals(20, ids.size());
+        assertEquals(20, productRepository.parallelStream(filtro).count());
+    }
+    @Test
+    public void indicesDevemAcompanharAtualizacaoERemocao(){
+        //Arrange
+        productRepository.append(product1);
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        //Act
+        productRepository.update(1, new Product(1, "Cachorro Quente", 20f, ""));
+        productRepository.remove(2);
+        //Assert
+        assertTrue(productRepository.searchByDescriptionPrefix("hot").isEmpty());
+        assertEquals(1, productRepository.searchByDescriptionPrefix("CACHORRO").size());
+        assertTrue(productRepository.searchByWords("burger").isEmpty());
+        assertEquals(1, productRepository.getByPriceRange(20f, 20f).size());
+    }
+}
@@ -0,0 +1,13 @@
+package com.snack.repositories;
+
+public class SearchIndexRepositoryEngineTest extends RepositoryEngineContractTest {
+    @Override
+    protected RepositoryEngine engine() {
+        return RepositoryEngine.PERSISTENT;
+    }
+
+    @Override
+    protected boolean searchIndex() {
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedProductStorageTest {
+    private ProductRepository repositorio(CachedProductStorage storage) {
+        ProductRepository productRepository = new ProductRepository(storage);
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, ""));
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        return productRepository;
+    }
+
+    @Test
+    public void segundaLeituraDeveVirDoCache() {
+        // Arrange
+        CachedProductStorage storage = new CachedProductStorage(new HashProductStorage(), CachedProductStorage.Policy.LRU, 10);
+        storage.add(new Product(1, "Hot Dog", 10.4f, ""));
+        // Act
+        storage.get(1);
+        storage.get(1);
+        // Assert
+        CachedProductStorage.Stats stats = storage.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0.5, stats.hitRate());
+    }
+
+    @Test
+    public void atualizacaoERemocaoDevemInvalidarCache() {
+        // Arrange
+        CachedProductStorage storage = new CachedProductStorage(new HashProductStorage(), CachedProductStorage.Policy.TINY_LFU, 10);
+        ProductRepository productRepository = repositorio(storage);
+        productRepository.getById(1);
+        productRepository.getById(2);
+        // Act
+        productRepository.update(1, new Product(1, "Cachorro Quente", 11f, ""));
+        productRepository.remove(2);
+        // Assert
+        assertEquals("Cachorro Quente", productRepository.getById(1).getDescription());
+        assertFalse(productRepository.exists(2));
+        assertNull(storage.get(2));
+    }
+
+    @Test
+    public void alterarProdutoLidoDoCacheNaoDeveAlterarCache() {
+        // Arrange
+        CachedProductStorage storage = new CachedProductStorage(new HashProductStorage(), CachedProductStorage.Policy.LRU, 10);
+        ProductRepository productRepository = repositorio(storage);
+        productRepository.getById(2);
+        // Act
+        productRepository.getById(2).setPrice(0f);
+        // Assert
+        assertEquals(12.5f, productRepository.getById(2).getPrice());
+    }
+
+    @Test
+    public void lruDeveRespeitarTamanhoMaximo() {
+        // Arrange
+        CachedProductStorage storage = new CachedProductStorage(new HashProductStorage(), CachedProductStorage.Policy.LRU, 3);
+        for (int id = 0; id < 10; id++) {
+            storage.add(new Product(id, "Produto", 1f, ""));
+        }
+        // Act
+        for (int id = 0; id < 10; id++) {
+            storage.get(id);
+        }
+        // Assert
+        assertEquals(3, storage.stats().size());
+        assertEquals(7, storage.stats().evictions());
+    }
+
+    @Test
+    public void tinyLfuDeveManterProdutosPopularesDuranteVarredura() {
+        // Arrange
+        CachedProductStorage storage = new CachedProductStorage(new HashProductStorage(), CachedProductStorage.Policy.TINY_LFU, 100);
+        for (int id = 0; id < 10_000; id++) {
+            storage.add(new Product(id, "Produto", 1f, ""));
+        }
+        for (int vez = 0; vez < 20; vez++) {
+            for (int id = 0; id < 50; id++) {
+                storage.get(id);
+            }
+        }
+        // Act
+        for (int id = 1_000; id < 1_500; id++) {
+            storage.get(id);
+        }
+        long hitsAntes = storage.stats().hits();
+        for (int id = 0; id < 50; id++) {
+            storage.get(id);
+        }
+        // Assert
+        assertEquals(50, storage.stats().hits() - hitsAntes);
+        assertTrue(storage.stats().size() <= 100);
+    }
+
+    @Test
+    public void leituraConcorrenteComAtualizacaoNaoDeveDeixarValorAntigoNoCache() throws Exception {
+        // Arrange
+        CountDownLatch atualizacaoIniciada = new CountDownLatch(1);
+        CountDownLatch liberarAtualizacao = new CountDownLatch(1);
+        CountDownLatch leituraFeita = new CountDownLatch(1);
+        CountDownLatch liberarLeitura = new CountDownLatch(1);
+        AtomicBoolean pausar = new AtomicBoolean(true);
+        HashProductStorage backend = new HashProductStorage() {
+            @Override
+            public boolean update(int id, Product product) {
+                if (pausar.get()) {
+                    atualizacaoIniciada.countDown();
+                    aguardar(liberarAtualizacao);
+                }
+                return super.update(id, product);
+            }
+
+            @Override
+            public Product get(int id) {
+                Product stored = super.get(id);
+                // update() changes the product get() returns in place; only the reader gets a copy and pauses
+                if (!pausar.get() || !Thread.currentThread().getName().equals("leitor")) {
+                    return stored;
+                }
+                Product copia = new Product(stored.getId(), stored.getDescription(), stored.getPrice(), stored.getImage());
+                leituraFeita.countDown();
+                aguardar(liberarLeitura);
+                return copia;
+            }
+        };
+        CachedProductStorage storage = new CachedProductStorage(backend, CachedProductStorage.Policy.LRU, 10);
+        backend.add(new Product(1, "Hot Dog", 10.4f, ""));
+        // Act
+        Thread escritor = new Thread(() -> storage.update(1, new Product(1, "Cachorro Quente", 11f, "")));
+        escritor.start();
+        atualizacaoIniciada.await();
+        Thread leitor = new Thread(() -> storage.get(1), "leitor");
+        leitor.start();
+        leituraFeita.await();
+        liberarAtualizacao.countDown();
+        escritor.join();
+        liberarLeitura.countDown();
+        leitor.join();
+        pausar.set(false);
+        // Assert
+        assertEquals("Cachorro Quente", storage.get(1).getDescription());
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
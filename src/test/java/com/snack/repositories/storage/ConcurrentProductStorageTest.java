@@ -0,0 +1,151 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentProductStorageTest {
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    public void setup() {
+        productRepository = new ProductRepository(new ConcurrentProductStorage());
+    }
+
+    @Test
+    public void deveManterOrdemDeInsercao() {
+        // Arrange
+        productRepository.append(new Product(3, "Refrigerante", 5f, ""));
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, ""));
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        // Act
+        productRepository.remove(1);
+        List<Product> todos = productRepository.getAll();
+        // Assert
+        assertEquals(2, todos.size());
+        assertEquals(3, todos.get(0).getId());
+        assertEquals(2, todos.get(1).getId());
+    }
+
+    @Test
+    public void devePublicarAtualizacaoSemAlterarInstanciaAnterior() {
+        // Arrange
+        Product original = new Product(1, "Hot Dog", 10.4f, "a.jpg");
+        productRepository.append(original);
+        Product lidoAntes = productRepository.getById(1);
+        // Act
+        productRepository.update(1, new Product(1, "Cachorro Quente", 12f, "b.jpg"));
+        // Assert
+        assertEquals("Hot Dog", lidoAntes.getDescription());
+        assertEquals("Cachorro Quente", productRepository.getById(1).getDescription());
+        assertEquals(12f, productRepository.getById(1).getPrice());
+    }
+
+    @Test
+    public void naoDeveLancarExcecaoComEscritasEListagemConcorrentes() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        List<Future<?>> tarefas = new ArrayList<Future<?>>();
+        // Act
+        for (int t = 0; t < 4; t++) {
+            int base = t * 10_000;
+            tarefas.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    productRepository.append(new Product(base + i, "P", 1f, ""));
+                    if (i % 2 == 1) {
+                        productRepository.remove(base + i);
+                    }
+                }
+            }));
+        }
+        Future<?> leitor = executor.submit(() -> {
+            while (rodando.get()) {
+                productRepository.getAll().forEach(p -> assertNotNull(p.getDescription()));
+            }
+        });
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(30, TimeUnit.SECONDS);
+        }
+        rodando.set(false);
+        leitor.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Assert
+        assertEquals(20_000, productRepository.getAll().size());
+        assertTrue(productRepository.exists(0));
+        assertFalse(productRepository.exists(1));
+    }
+
+    @Test
+    public void leitoresNuncaDevemVerAtualizacaoParcial() throws Exception {
+        // Arrange
+        productRepository.append(new Product(1, "A", 1f, "a.jpg"));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        // Act
+        Future<?> escritor = executor.submit(() -> {
+            for (int i = 0; i < 100_000; i++) {
+                if (i % 2 == 0) {
+                    productRepository.update(1, new Product(1, "B", 2f, "b.jpg"));
+                } else {
+                    productRepository.update(1, new Product(1, "A", 1f, "a.jpg"));
+                }
+            }
+            rodando.set(false);
+        });
+        List<Future<?>> leitores = new ArrayList<Future<?>>();
+        for (int t = 0; t < 2; t++) {
+            leitores.add(executor.submit(() -> {
+                while (rodando.get()) {
+                    Product p = productRepository.getById(1);
+                    float esperado = p.getDescription().equals("A") ? 1f : 2f;
+                    assertEquals(esperado, p.getPrice());
+                    assertEquals(p.getDescription().toLowerCase() + ".jpg", p.getImage());
+                }
+            }));
+        }
+        escritor.get(30, TimeUnit.SECONDS);
+        // Assert
+        for (Future<?> leitor : leitores) {
+            leitor.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void trocaDeImagemNaoDeveDesfazerAtualizacaoConcorrente() throws Exception {
+        // Arrange
+        productRepository.append(new Product(1, "P", 0f, "a.jpg"));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        // Act
+        Future<?> imagens = executor.submit(() -> {
+            while (rodando.get()) {
+                productRepository.updateImage(1, "b.jpg");
+            }
+        });
+        Future<?> escritor = executor.submit(() -> {
+            for (int i = 1; i <= 50_000; i++) {
+                productRepository.update(1, new Product(1, "P", i, "a.jpg"));
+                assertTrue(productRepository.getById(1).getPrice() >= i, "preço voltou para um valor antigo");
+            }
+            rodando.set(false);
+        });
+        escritor.get(30, TimeUnit.SECONDS);
+        imagens.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        // Assert
+        assertEquals(50_000f, productRepository.getById(1).getPrice());
+    }
+}
@@ -0,0 +1,143 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurableProductStorageTest {
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void deveRecuperarCatalogoAoReabrir() throws IOException {
+        // Arrange
+        try (DurableProductStorage storage = new DurableProductStorage(diretorio)) {
+            ProductRepository productRepository = new ProductRepository(storage);
+            productRepository.append(new Product(1, "Hot Dog", 10.4f, "1.jpg"));
+            productRepository.append(new Product(2, "X-Burger", 12.5f, null));
+            productRepository.append(new Product(3, "Refrigerante", 5f, ""));
+            productRepository.update(1, new Product(1, "Cachorro Quente", 11f, "1.png"));
+            productRepository.remove(2);
+        }
+        // Act
+        try (DurableProductStorage reaberto = new DurableProductStorage(diretorio)) {
+            List<Product> produtos = reaberto.values();
+            // Assert
+            assertEquals(2, produtos.size());
+            assertEquals("Cachorro Quente", produtos.get(0).getDescription());
+            assertEquals(11f, produtos.get(0).getPrice());
+            assertEquals("1.png", produtos.get(0).getImage());
+            assertEquals(3, produtos.get(1).getId());
+            assertFalse(reaberto.contains(2));
+        }
+    }
+
+    @Test
+    public void deveRecuperarDoSnapshotMaisCaudaDoLog() throws IOException {
+        // Arrange
+        try (DurableProductStorage storage = new DurableProductStorage(diretorio)) {
+            storage.add(new Product(1, "Hot Dog", 10.4f, ""));
+            storage.add(new Product(2, "X-Burger", 12.5f, ""));
+            storage.checkpoint();
+            storage.remove(1);
+            storage.add(new Product(4, "Suco", 6f, ""));
+        }
+        // Act
+        try (DurableProductStorage reaberto = new DurableProductStorage(diretorio)) {
+            // Assert
+            assertTrue(Files.exists(diretorio.resolve("snapshot.bin")));
+            assertFalse(reaberto.contains(1));
+            assertTrue(reaberto.contains(2));
+            assertTrue(reaberto.contains(4));
+        }
+    }
+
+    @Test
+    public void deveDescartarRegistroIncompletoNoFimDoLog() throws IOException {
+        // Arrange
+        try (DurableProductStorage storage = new DurableProductStorage(diretorio)) {
+            storage.add(new Product(1, "Hot Dog", 10.4f, ""));
+        }
+        Files.write(diretorio.resolve("wal.log"), new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+        // Act
+        try (DurableProductStorage reaberto = new DurableProductStorage(diretorio)) {
+            reaberto.add(new Product(2, "X-Burger", 12.5f, ""));
+        }
+        try (DurableProductStorage reaberto = new DurableProductStorage(diretorio)) {
+            // Assert
+            assertEquals(2, reaberto.size());
+        }
+    }
+
+    @Test
+    public void escritasConcorrentesDevemSerTodasRecuperadas() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (DurableProductStorage storage = new DurableProductStorage(diretorio, new ConcurrentProductStorage(),
+                DurableProductStorage.Durability.SYNC, 16 << 10)) {
+            List<Future<?>> tarefas = new ArrayList<Future<?>>();
+            // Act
+            for (int t = 0; t < 8; t++) {
+                int base = t * 500;
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        storage.add(new Product(base + i, "P" + i, i, ""));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        try (DurableProductStorage reaberto = new DurableProductStorage(diretorio)) {
+            // Assert
+            assertEquals(4_000, reaberto.size());
+            assertTrue(Files.exists(diretorio.resolve("snapshot.bin")));
+        }
+    }
+
+    @Test
+    public void novoRegistroNaoDeveEncerrarAJanelaDeAgrupamentoDoLog() throws IOException {
+        // Arrange
+        try (WriteAheadLog log = new WriteAheadLog(diretorio.resolve("janela.log"), 200)) {
+            long inicio = System.nanoTime();
+            long primeiro = log.append(new byte[] { 1 });
+            // Act
+            log.append(new byte[] { 2 });
+            log.awaitDurable(primeiro);
+            long decorrido = (System.nanoTime() - inicio) / 1_000_000L;
+            // Assert
+            assertTrue(decorrido >= 150, "o log sincronizou após " + decorrido + " ms");
+        }
+    }
+
+    @Test
+    public void escritaRecusadaPeloLogNaoDeveAlterarOCatalogo() throws IOException {
+        // Arrange
+        DurableProductStorage storage = new DurableProductStorage(diretorio);
+        storage.add(new Product(1, "Hot Dog", 10.4f, "1.jpg"));
+        storage.close();
+        // Act
+        assertThrows(IllegalStateException.class, () -> storage.add(new Product(2, "X-Burger", 12.5f, null)));
+        assertThrows(IllegalStateException.class, () -> storage.update(1, new Product(1, "Cachorro Quente", 11f, "1.png")));
+        assertThrows(IllegalStateException.class, () -> storage.remove(1));
+        // Assert
+        assertFalse(storage.contains(2));
+        assertEquals("Hot Dog", storage.get(1).getDescription());
+    }
+}
@@ -0,0 +1,79 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntHashProductStorageTest {
+    private IntHashProductStorage storage;
+
+    @BeforeEach
+    public void setup() {
+        storage = new IntHashProductStorage();
+    }
+
+    @Test
+    public void deveRecuperarProdutoPorId() {
+        // Arrange
+        Product product = new Product(1, "Hot Dog", 10.4f, "");
+        storage.add(product);
+        // Act
+        Product encontrado = storage.get(1);
+        // Assert
+        assertSame(product, encontrado);
+        assertNull(storage.get(2));
+    }
+
+    @Test
+    public void deveRecusarIdDuplicado() {
+        // Arrange
+        storage.add(new Product(1, "Hot Dog", 10.4f, ""));
+        // Act
+        boolean resultado = storage.add(new Product(1, "Cachorro Quente", 10.4f, ""));
+        // Assert
+        assertFalse(resultado);
+        assertEquals("Hot Dog", storage.get(1).getDescription());
+    }
+
+    @Test
+    public void deveAceitarIdsNegativosEZero() {
+        // Arrange
+        storage.add(new Product(0, "Zero", 1f, ""));
+        storage.add(new Product(-5, "Negativo", 1f, ""));
+        // Act e Assert
+        assertTrue(storage.contains(0));
+        assertTrue(storage.contains(-5));
+        assertFalse(storage.contains(5));
+    }
+
+    @Test
+    public void deveComportarSeComoMapaEmOperacoesAleatorias() {
+        // Arrange
+        Map<Integer, Product> esperado = new LinkedHashMap<Integer, Product>();
+        Random random = new Random(42);
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            int id = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(esperado.remove(id), storage.remove(id));
+            } else {
+                Product product = new Product(id, "P" + id, id, "");
+                assertEquals(esperado.putIfAbsent(id, product) == null, storage.add(product));
+            }
+        }
+        // Assert
+        assertEquals(esperado.size(), storage.size());
+        List<Product> valores = storage.values();
+        assertEquals(List.copyOf(esperado.values()), valores);
+        for (int id = 0; id < 5_000; id++) {
+            assertEquals(esperado.get(id), storage.get(id));
+        }
+    }
+}
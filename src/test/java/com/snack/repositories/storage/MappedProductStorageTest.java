@@ -0,0 +1,100 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedProductStorageTest {
+    @TempDir
+    Path diretorio;
+
+    private Path arquivo;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        arquivo = diretorio.resolve("catalog.map");
+        MappedCatalog.write(arquivo, List.of(
+                new Product(30, "Hot Dog", 10.4f, "30.jpg"),
+                new Product(-5, "Pão de Queijo", 4.5f, null),
+                new Product(12, "X-Burger", 12.5f, "")));
+    }
+
+    @Test
+    public void deveLerProdutosDoArquivoMapeado() throws IOException {
+        // Arrange
+        MappedProductStorage storage = MappedProductStorage.open(arquivo);
+        // Act
+        List<Product> produtos = storage.values();
+        // Assert
+        assertEquals(3, storage.size());
+        assertEquals(30, produtos.get(0).getId());
+        assertEquals(-5, produtos.get(1).getId());
+        assertEquals("Pão de Queijo", storage.get(-5).getDescription());
+        assertNull(storage.get(-5).getImage());
+        assertEquals("", storage.get(12).getImage());
+        assertEquals(10.4f, storage.get(30).getPrice());
+        assertNull(storage.get(7));
+    }
+
+    @Test
+    public void alteracoesDevemFicarSobreOArquivo() throws IOException {
+        // Arrange
+        ProductRepository productRepository = new ProductRepository(MappedProductStorage.open(arquivo));
+        // Act
+        productRepository.append(new Product(1, "Refrigerante", 5f, ""));
+        productRepository.update(30, new Product(30, "Cachorro Quente", 11f, "30.png"));
+        productRepository.remove(12);
+        // Assert
+        List<Product> produtos = productRepository.getAll();
+        assertEquals(3, produtos.size());
+        assertEquals("Cachorro Quente", produtos.get(0).getDescription());
+        assertEquals(1, produtos.get(2).getId());
+        assertFalse(productRepository.exists(12));
+        assertThrows(IllegalArgumentException.class, () -> productRepository.append(new Product(-5, "Outro", 1f, "")));
+    }
+
+    @Test
+    public void produtoRemovidoPodeSerIncluidoNovamente() throws IOException {
+        // Arrange
+        MappedProductStorage storage = MappedProductStorage.open(arquivo);
+        storage.remove(12);
+        // Act
+        boolean incluido = storage.add(new Product(12, "X-Salada", 13f, ""));
+        // Assert
+        assertTrue(incluido);
+        assertEquals(3, storage.size());
+        assertEquals("X-Salada", storage.get(12).getDescription());
+    }
+
+    @Test
+    public void compactarDeveGravarAlteracoesEmNovoArquivo() throws IOException {
+        // Arrange
+        MappedProductStorage storage = MappedProductStorage.open(arquivo);
+        storage.add(new Product(1, "Refrigerante", 5f, ""));
+        storage.remove(-5);
+        // Act
+        storage.compact(arquivo);
+        MappedProductStorage reaberto = MappedProductStorage.open(arquivo);
+        // Assert
+        assertEquals(3, reaberto.size());
+        assertEquals(List.of(30, 12, 1), reaberto.values().stream().map(Product::getId).toList());
+        assertFalse(reaberto.contains(-5));
+    }
+
+    @Test
+    public void deveRejeitarArquivoQueNaoEhCatalogo() throws IOException {
+        // Arrange
+        Path invalido = Files.write(diretorio.resolve("outro.bin"), new byte[]{1, 2, 3});
+        // Act + Assert
+        assertThrows(IOException.class, () -> MappedCatalog.open(invalido));
+    }
+}
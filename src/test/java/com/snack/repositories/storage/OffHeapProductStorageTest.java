@@ -0,0 +1,83 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapProductStorageTest {
+    private OffHeapProductStorage storage;
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    public void setup() {
+        storage = new OffHeapProductStorage();
+        productRepository = new ProductRepository(storage);
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, "1.jpg"));
+    }
+
+    @Test
+    public void deveLerProdutoDasColunas() {
+        // Arrange
+        productRepository.append(new Product(2, "Pão de Queijo", 4.5f, null));
+        // Act
+        Product produto = productRepository.getById(2);
+        // Assert
+        assertEquals("Pão de Queijo", produto.getDescription());
+        assertEquals(4.5f, produto.getPrice());
+        assertNull(produto.getImage());
+        assertEquals("1.jpg", productRepository.getById(1).getImage());
+    }
+
+    @Test
+    public void alterarProdutoLidoNaoDeveAlterarCatalogo() {
+        // Arrange
+        Product lido = productRepository.getById(1);
+        // Act
+        lido.setPrice(0f);
+        productRepository.update(1, new Product(1, "Cachorro Quente", 11f, "1.png"));
+        // Assert
+        Product atual = productRepository.getById(1);
+        assertEquals(11f, atual.getPrice());
+        assertEquals("Cachorro Quente", atual.getDescription());
+        assertEquals("1.png", atual.getImage());
+    }
+
+    @Test
+    public void deveManterOrdemECrescerAposMuitasInclusoesERemocoes() {
+        // Arrange
+        for (int id = 2; id <= 10_000; id++) {
+            storage.add(new Product(id, "Produto " + id % 10, id, ""));
+        }
+        // Act
+        for (int id = 2; id <= 10_000; id += 2) {
+            storage.remove(id);
+        }
+        // Assert
+        List<Product> produtos = storage.values();
+        assertEquals(5_000, storage.size());
+        assertEquals(1, produtos.get(0).getId());
+        assertEquals(3, produtos.get(1).getId());
+        assertEquals("Produto 9", storage.get(9_999).getDescription());
+        assertNull(storage.get(5_000));
+    }
+
+    @Test
+    public void textosIguaisDevemSerArmazenadosUmaVez() {
+        // Arrange
+        StringArena arena = new StringArena();
+        // Act
+        int primeiro = arena.intern("Refrigerante");
+        int segundo = arena.intern(new String("Refrigerante"));
+        int outro = arena.intern("Suco");
+        // Assert
+        assertEquals(primeiro, segundo);
+        assertNotEquals(primeiro, outro);
+        assertEquals("Suco", arena.get(outro));
+        assertEquals(StringArena.NULL, arena.intern(null));
+    }
+}
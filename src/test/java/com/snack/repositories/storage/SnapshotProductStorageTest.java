@@ -0,0 +1,57 @@
+package com.snack.repositories.storage;
+
+import com.snack.entities.Product;
+import com.snack.entities.ProductRecord;
+import com.snack.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotProductStorageTest {
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    public void setup() {
+        productRepository = new ProductRepository(new SnapshotProductStorage());
+        productRepository.append(new Product(1, "Hot Dog", 10.4f, ""));
+    }
+
+    @Test
+    public void snapshotAntigoNaoDeveVerEscritasPosteriores() {
+        // Arrange
+        CatalogSnapshot antes = productRepository.snapshot();
+        // Act
+        productRepository.update(1, new Product(1, "Cachorro Quente", 12f, ""));
+        productRepository.append(new Product(2, "X-Burger", 12.5f, ""));
+        CatalogSnapshot depois = productRepository.snapshot();
+        // Assert
+        assertEquals(new ProductRecord(1, "Hot Dog", 10.4f, ""), antes.get(1));
+        assertEquals(1, antes.size());
+        assertEquals("Cachorro Quente", depois.get(1).description());
+        assertEquals(2, depois.size());
+        assertEquals(antes.version() + 2, depois.version());
+    }
+
+    @Test
+    public void alterarProdutoLidoNaoDeveAlterarCatalogo() {
+        // Arrange
+        Product lido = productRepository.getById(1);
+        // Act
+        lido.setPrice(0f);
+        // Assert
+        assertEquals(10.4f, productRepository.getById(1).getPrice());
+    }
+
+    @Test
+    public void remocaoDeveGerarNovaVersao() {
+        // Arrange
+        long versao = productRepository.snapshot().version();
+        // Act
+        productRepository.remove(1);
+        productRepository.remove(1);
+        // Assert
+        assertFalse(productRepository.exists(1));
+        assertEquals(versao + 1, productRepository.snapshot().version());
+    }
+}
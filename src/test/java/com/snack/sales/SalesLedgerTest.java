@@ -0,0 +1,100 @@
+package com.snack.sales;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesLedgerTest {
+    private static final long MINUTO = 60_000;
+
+    @Test
+    void totaisPorProdutoSomamUnidadesEReceita() {
+        // Arrange
+        SalesLedger ledger = new SalesLedger();
+
+        // Act
+        ledger.record(1, 2, 2_080);
+        ledger.record(1, 1, 1_040);
+        ledger.record(2, 5, 50);
+
+        // Assert
+        assertEquals(new ProductSales(1, 3, 3_120), ledger.product(1));
+        assertEquals(5, ledger.unitsSold(2));
+        assertEquals(0, ledger.revenueCents(99));
+        assertEquals(8, ledger.totalUnits());
+        assertEquals(3_170, ledger.totalRevenueCents());
+    }
+
+    @Test
+    void maisVendidosVemOrdenadosEDesempatamPeloId() {
+        // Arrange
+        SalesLedger ledger = new SalesLedger();
+        ledger.record(1, 3, 300);
+        ledger.record(2, 10, 100);
+        ledger.record(3, 3, 900);
+        ledger.record(4, 1, 10);
+
+        // Act
+        List<ProductSales> top = ledger.topSellers(3);
+
+        // Assert
+        assertEquals(List.of(2, 1, 3), top.stream().map(ProductSales::productId).toList());
+        assertEquals(List.of(), ledger.topSellers(0));
+        assertEquals(4, ledger.topSellers(10).size());
+    }
+
+    @Test
+    void vendasSaoAgrupadasPorMinutoEOsMinutosAntigosSaoDescartados() {
+        // Arrange
+        AtomicLong agora = new AtomicLong(10 * MINUTO);
+        SalesLedger ledger = new SalesLedger(3, agora::get);
+
+        // Act
+        ledger.record(1, 1, 100);
+        ledger.record(1, 2, 200);
+        agora.set(11 * MINUTO + 30_000);
+        ledger.record(2, 4, 40);
+        agora.set(13 * MINUTO);
+        ledger.record(2, 1, 10);
+
+        // Assert
+        assertEquals(new MinuteSales(10, 0, 0), ledger.minute(10));
+        assertEquals(new MinuteSales(11, 4, 40), ledger.minute(11));
+        assertEquals(new MinuteSales(13, 1, 10), ledger.minute(13));
+        assertEquals(List.of(13L, 12L, 11L), ledger.lastMinutes(5).stream().map(MinuteSales::minute).toList());
+        assertEquals(8, ledger.totalUnits());
+    }
+
+    @Test
+    void vendasConcorrentesNaoSePerdem() throws InterruptedException {
+        // Arrange
+        SalesLedger ledger = new SalesLedger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch fim = new CountDownLatch(4);
+
+        // Act
+        for (int vendedor = 0; vendedor < 4; vendedor++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ledger.record(i % 10, 1, 150);
+                }
+                fim.countDown();
+            });
+        }
+        assertTrue(fim.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Assert
+        assertEquals(40_000, ledger.totalUnits());
+        assertEquals(4_000, ledger.unitsSold(7));
+        assertEquals(6_000_000, ledger.totalRevenueCents());
+        assertEquals(40_000, ledger.lastMinutes(2).stream().mapToLong(MinuteSales::units).sum());
+    }
+}
@@ -0,0 +1,105 @@
+package com.snack.services;
+
+import com.snack.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ContentAddressedImageStoreTest {
+    @TempDir
+    Path diretorio;
+
+    private Path loja;
+    private Path imagem;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loja = diretorio.resolve("blobs");
+        imagem = Files.write(diretorio.resolve("hotdog.jpg"), new byte[]{1, 2, 3, 4});
+    }
+
+    @Test
+    public void produtosComMesmaImagemDevemCompartilharUmArquivo() throws IOException {
+        // Arrange
+        ContentAddressedImageStore store = new ContentAddressedImageStore(loja);
+        // Act
+        Path primeiro = store.store(1, imagem, "jpg");
+        Path segundo = store.store(2, imagem, "jpg");
+        // Assert
+        assertEquals(primeiro, segundo);
+        assertEquals(1, store.blobCount());
+        assertEquals(2, store.referenceCount(primeiro.getFileName().toString()));
+    }
+
+    @Test
+    public void soDeveApagarArquivoQuandoUltimoProdutoLiberar() throws IOException {
+        // Arrange
+        ContentAddressedImageStore store = new ContentAddressedImageStore(loja);
+        Path blob = store.store(1, imagem, "jpg");
+        store.store(2, imagem, "jpg");
+        // Act
+        store.release(1);
+        boolean existeAposPrimeiraLiberacao = Files.exists(blob);
+        store.release(2);
+        // Assert
+        assertTrue(existeAposPrimeiraLiberacao);
+        assertFalse(Files.exists(blob));
+        assertFalse(store.release(2));
+    }
+
+    @Test
+    public void deveRecuperarIndiceAoReabrir() throws IOException {
+        // Arrange
+        ContentAddressedImageStore store = new ContentAddressedImageStore(loja);
+        Path blob = store.store(1, imagem, "jpg");
+        store.store(2, imagem, "jpg");
+        store.release(2);
+        // Act
+        ContentAddressedImageStore reaberto = new ContentAddressedImageStore(loja);
+        // Assert
+        assertEquals(blob, reaberto.get(1));
+        assertNull(reaberto.get(2));
+        assertEquals(1, reaberto.referenceCount(blob.getFileName().toString()));
+    }
+
+    @Test
+    public void reabrirNaoDeveApagarMiniaturasDeImagensReferenciadas() throws IOException {
+        // Arrange
+        ContentAddressedImageStore store = new ContentAddressedImageStore(loja);
+        Path blob = store.store(1, imagem, "jpg");
+        Path miniatura = Files.write(ThumbnailService.thumbnailPath(blob, 256), new byte[]{5});
+        Path orfa = Files.write(loja.resolve("0".repeat(64) + ".thumb256.jpg"), new byte[]{6});
+        Path temporario = Files.write(loja.resolve("incoming-123.tmp"), new byte[]{7});
+        Path outro = Files.write(loja.resolve("LEIAME.txt"), new byte[]{8});
+        // Act
+        new ContentAddressedImageStore(loja);
+        // Assert
+        assertTrue(Files.exists(blob));
+        assertTrue(Files.exists(miniatura));
+        assertTrue(Files.exists(outro));
+        assertFalse(Files.exists(orfa));
+        assertFalse(Files.exists(temporario));
+    }
+
+    @Test
+    public void servicoDeveResolverImagemPeloIndiceDeConteudo() throws IOException {
+        // Arrange
+        ProductService productService = new ProductService();
+        productService.setContentStore(new ContentAddressedImageStore(loja));
+        Product hotDog = new Product(1, "Hot Dog", 10f, imagem.toString());
+        Product hotDogGrande = new Product(2, "Hot Dog Grande", 14f, imagem.toString());
+        // Act
+        productService.save(hotDog);
+        productService.save(hotDogGrande);
+        productService.remove(1);
+        // Assert
+        assertEquals(hotDogGrande.getImage(), productService.getImagePathById(2));
+        assertTrue(Files.exists(Path.of(hotDogGrande.getImage())));
+    }
+}
@@ -0,0 +1,89 @@
+package com.snack.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageIndexTest {
+    @TempDir
+    Path diretorio;
+
+    private ImageIndex imageIndex;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (imageIndex != null) {
+            imageIndex.close();
+        }
+    }
+
+    @Test
+    public void naoDeveConfundirIdComPrefixoDeOutroArquivo() throws IOException {
+        // Arrange
+        Files.createFile(diretorio.resolve("10.jpg"));
+        Files.createFile(diretorio.resolve("123.png"));
+        Files.createFile(diretorio.resolve("leia-me.txt"));
+        imageIndex = new ImageIndex(diretorio);
+        // Act
+        imageIndex.rebuild();
+        // Assert
+        assertNull(imageIndex.get(1));
+        assertEquals(diretorio.resolve("10.jpg"), imageIndex.get(10));
+        assertEquals(diretorio.resolve("123.png"), imageIndex.get(123));
+    }
+
+    @Test
+    public void deveAcompanharArquivosAlteradosForaDaAplicacao() throws Exception {
+        // Arrange
+        Path removido = Files.createFile(diretorio.resolve("7.jpg"));
+        imageIndex = new ImageIndex(diretorio);
+        imageIndex.rebuild();
+        imageIndex.watch();
+        // Act
+        Path criado = Files.createFile(diretorio.resolve("8.png"));
+        Files.delete(removido);
+        // Assert
+        long limite = System.currentTimeMillis() + 15_000;
+        while ((imageIndex.get(8) == null || imageIndex.get(7) != null) && System.currentTimeMillis() < limite) {
+            Thread.sleep(50);
+        }
+        assertEquals(criado, imageIndex.get(8));
+        assertNull(imageIndex.get(7));
+    }
+
+    @Test
+    public void buscasDuranteReconstrucaoDevemVerOIndiceAnterior() throws Exception {
+        // Arrange
+        for (int id = 0; id < 500; id++) {
+            Files.createFile(diretorio.resolve(id + ".jpg"));
+        }
+        imageIndex = new ImageIndex(diretorio);
+        imageIndex.rebuild();
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        AtomicInteger ausentes = new AtomicInteger();
+        Thread leitor = new Thread(() -> {
+            while (rodando.get()) {
+                if (imageIndex.get(499) == null) {
+                    ausentes.incrementAndGet();
+                }
+            }
+        });
+        leitor.start();
+        // Act
+        for (int i = 0; i < 50; i++) {
+            imageIndex.rebuild();
+        }
+        rodando.set(false);
+        leitor.join();
+        // Assert
+        assertEquals(0, ausentes.get());
+    }
+}
@@ -0,0 +1,82 @@
+package com.snack.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageIngestionExecutorTest {
+    private ImageIngestionExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ImageIngestionExecutor(2, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    public void deveBloquearQuemSubmeteQuandoFilaEstiverCheia() throws InterruptedException {
+        // Arrange
+        CountDownLatch liberar = new CountDownLatch(1);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> awaitQuietly(liberar));
+        }
+        CountDownLatch submetido = new CountDownLatch(1);
+        Thread produtor = new Thread(() -> {
+            executor.execute(() -> { });
+            submetido.countDown();
+        });
+        // Act
+        produtor.start();
+        boolean submeteuComFilaCheia = submetido.await(200, TimeUnit.MILLISECONDS);
+        liberar.countDown();
+        // Assert
+        assertFalse(submeteuComFilaCheia);
+        assertTrue(submetido.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void naoDeveExecutarMaisTarefasQueOParalelismo() throws InterruptedException {
+        // Arrange
+        AtomicInteger emExecucao = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        CountDownLatch concluidas = new CountDownLatch(20);
+        // Act
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                maximo.accumulateAndGet(emExecucao.incrementAndGet(), Math::max);
+                sleepQuietly(5);
+                emExecucao.decrementAndGet();
+                concluidas.countDown();
+            });
+        }
+        // Assert
+        assertTrue(concluidas.await(10, TimeUnit.SECONDS));
+        assertTrue(maximo.get() <= 2);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.snack.services;
+
+import com.snack.entities.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageStorageConfigTest {
+    @TempDir
+    Path diretorio;
+
+    @Test
+    public void deveDistribuirImagensEmSubdiretorios() {
+        // Arrange
+        ImageStorageConfig config = new ImageStorageConfig(diretorio, 1);
+        Map<Path, Integer> arquivosPorDiretorio = new HashMap<Path, Integer>();
+        // Act
+        for (int id = 0; id < 256_000; id++) {
+            arquivosPorDiretorio.merge(config.directoryFor(id), 1, Integer::sum);
+        }
+        // Assert
+        assertEquals(256, arquivosPorDiretorio.size());
+        assertTrue(arquivosPorDiretorio.values().stream().allMatch(total -> total < 2_000));
+        assertEquals(diretorio.resolve("42.jpg").getFileName(), config.resolve(42, "jpg").getFileName());
+        assertEquals(diretorio, config.resolve(42, "jpg").getParent().getParent());
+    }
+
+    @Test
+    public void deveLerRaizDasPropriedadesDoSistema() {
+        // Arrange
+        System.setProperty("snack.images.root", diretorio.toString());
+        System.setProperty("snack.images.shardDepth", "2");
+        try {
+            // Act
+            ImageStorageConfig config = ImageStorageConfig.fromEnvironment();
+            // Assert
+            assertEquals(diretorio.toAbsolutePath(), config.getRoot());
+            assertEquals(2, config.getShardDepth());
+        } finally {
+            System.clearProperty("snack.images.root");
+            System.clearProperty("snack.images.shardDepth");
+        }
+    }
+
+    @Test
+    public void servicoDeveSalvarEncontrarERemoverImagemEmSubdiretorio() throws IOException {
+        // Arrange
+        Path origem = Files.createFile(diretorio.resolve("hotdog.jpg"));
+        ProductService productService = new ProductService(new ImageStorageConfig(diretorio.resolve("imagens"), 2));
+        Product product = new Product(7, "Hot Dog", 10f, origem.toString());
+        // Act
+        productService.save(product);
+        String caminho = productService.getImagePathById(7);
+        ProductService reiniciado = new ProductService(new ImageStorageConfig(diretorio.resolve("imagens"), 2));
+        reiniciado.remove(7);
+        // Assert
+        assertEquals(product.getImage(), caminho);
+        assertFalse(Files.exists(Path.of(caminho)));
+    }
+}
@@ -0,0 +1,110 @@
+package com.snack.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageTransferStrategyTest {
+    @TempDir
+    Path diretorio;
+
+    private Path origem;
+    private byte[] conteudo;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        conteudo = new byte[300_000];
+        new Random(7).nextBytes(conteudo);
+        origem = Files.write(diretorio.resolve("origem.jpg"), conteudo);
+    }
+
+    @Test
+    public void todasAsEstrategiasDevemProduzirOMesmoConteudo() throws IOException {
+        for (ImageTransferStrategy estrategia : ImageTransferStrategy.values()) {
+            // Arrange
+            Path fonte = Files.copy(origem, diretorio.resolve("fonte-" + estrategia + ".jpg"));
+            Path destino = diretorio.resolve("destino-" + estrategia + ".jpg");
+            Files.write(destino, new byte[]{1, 2, 3});
+            // Act
+            estrategia.transfer(fonte, destino);
+            // Assert
+            assertArrayEquals(conteudo, Files.readAllBytes(destino), estrategia.name());
+        }
+    }
+
+    @Test
+    public void moverDeveConsumirArquivoDeOrigem() throws IOException {
+        // Arrange
+        Path destino = diretorio.resolve("1.jpg");
+        // Act
+        ImageTransferStrategy.MOVE.transfer(origem, destino);
+        // Assert
+        assertFalse(Files.exists(origem));
+        assertTrue(Files.exists(destino));
+    }
+
+    @Test
+    public void linkFisicoNaoDeveDuplicarArquivo() throws IOException {
+        // Arrange
+        Path destino = diretorio.resolve("1.jpg");
+        // Act
+        ImageTransferStrategy.HARD_LINK.transfer(origem, destino);
+        // Assert
+        assertTrue(Files.isSameFile(origem, destino));
+    }
+
+    @Test
+    public void deveDetectarConteudoIdentico() throws IOException {
+        // Arrange
+        Path igual = Files.write(diretorio.resolve("igual.jpg"), conteudo);
+        conteudo[conteudo.length - 1]++;
+        Path diferente = Files.write(diretorio.resolve("diferente.jpg"), conteudo);
+        // Act e Assert
+        assertTrue(ImageTransferStrategy.isIdentical(origem, igual));
+        assertFalse(ImageTransferStrategy.isIdentical(origem, diferente));
+        assertFalse(ImageTransferStrategy.isIdentical(origem, diretorio.resolve("inexistente.jpg")));
+    }
+
+    @Test
+    public void transferenciaNaoDeveDeixarArquivoTemporarioNoDiretorio() throws IOException {
+        // Arrange
+        Path destino = Files.write(diretorio.resolve("1.jpg"), new byte[]{1, 2, 3});
+        // Act
+        ImageTransferStrategy.TRANSFER.transfer(origem, destino);
+        // Assert
+        assertArrayEquals(conteudo, Files.readAllBytes(destino));
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertEquals(2, arquivos.count());
+        }
+    }
+
+    @Test
+    public void falhaNaTransferenciaDeveManterImagemAnterior() throws IOException {
+        // Arrange
+        Path destino = Files.write(diretorio.resolve("1.jpg"), new byte[]{1, 2, 3});
+        Path inexistente = diretorio.resolve("inexistente.jpg");
+        // Act
+        assertThrows(IOException.class, () -> ImageTransferStrategy.TRANSFER.transfer(inexistente, destino));
+        // Assert
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(destino));
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertEquals(2, arquivos.count());
+        }
+    }
+
+    @Test
+    public void linkFisicoDaPropriaImagemNaoDeveApagala() throws IOException {
+        // Act
+        ImageTransferStrategy.HARD_LINK.transfer(origem, origem);
+        // Assert
+        assertArrayEquals(conteudo, Files.readAllBytes(origem));
+    }
+}
@@ -0,0 +1,174 @@
+package com.snack.services;
+
+import com.snack.entities.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ThumbnailServiceTest {
+    @TempDir
+    Path diretorio;
+
+    private Path imagem;
+    private ThumbnailService thumbnails;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imagem = criarImagem(diretorio.resolve("1.jpg"), 800, 400);
+        thumbnails = new ThumbnailService(new int[]{64, 256}, 1024 * 1024, Runnable::run);
+    }
+
+    private static Path criarImagem(Path arquivo, int largura, int altura) throws IOException {
+        BufferedImage imagem = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < largura; x++) {
+            imagem.setRGB(x, x * altura / largura, 0xFF8800);
+        }
+        ImageIO.write(imagem, "jpg", arquivo.toFile());
+        return arquivo;
+    }
+
+    @Test
+    public void deveGerarMiniaturasAoLadoDoOriginalMantendoProporcao() throws IOException {
+        // Act
+        boolean gerado = thumbnails.generate(imagem);
+        // Assert
+        assertTrue(gerado);
+        BufferedImage miniatura = ImageIO.read(ThumbnailService.thumbnailPath(imagem, 256).toFile());
+        assertEquals(diretorio.resolve("1.thumb256.jpg"), ThumbnailService.thumbnailPath(imagem, 256));
+        assertEquals(256, miniatura.getWidth());
+        assertEquals(128, miniatura.getHeight());
+        assertTrue(Files.exists(diretorio.resolve("1.thumb64.jpg")));
+        assertNull(ImageIndex.imageId("1.thumb64.jpg"));
+    }
+
+    @Test
+    public void leituraDeveGerarMiniaturaAusenteEUsarCache() throws IOException {
+        // Act
+        byte[] primeira = thumbnails.getThumbnail(imagem, 64);
+        Files.delete(ThumbnailService.thumbnailPath(imagem, 64));
+        byte[] segunda = thumbnails.getThumbnail(imagem, 64);
+        // Assert
+        assertSame(primeira, segunda);
+        assertEquals(64, ImageIO.read(new ByteArrayInputStream(primeira)).getWidth());
+        assertEquals(primeira.length, thumbnails.getCachedBytes());
+    }
+
+    @Test
+    public void invalidarDeveApagarArquivosELimparCache() throws IOException {
+        // Arrange
+        thumbnails.getThumbnail(imagem, 256);
+        // Act
+        thumbnails.invalidate(imagem);
+        // Assert
+        assertEquals(0, thumbnails.getCachedBytes());
+        assertFalse(Files.exists(ThumbnailService.thumbnailPath(imagem, 256)));
+        assertFalse(Files.exists(ThumbnailService.thumbnailPath(imagem, 64)));
+    }
+
+    @Test
+    public void cacheDeveRespeitarLimiteDeBytes() throws IOException {
+        // Arrange
+        ThumbnailService pequeno = new ThumbnailService(new int[]{256}, 1, Runnable::run);
+        // Act
+        pequeno.getThumbnail(imagem, 256);
+        // Assert
+        assertEquals(0, pequeno.getCachedBytes());
+    }
+
+    @Test
+    public void deveRegenerarCatalogoInteiro() throws IOException {
+        // Arrange
+        Path outra = criarImagem(diretorio.resolve("2.png"), 100, 300);
+        Path invalida = Files.write(diretorio.resolve("3.jpg"), new byte[]{1, 2, 3});
+        // Act
+        int geradas = thumbnails.regenerateAll(List.of(imagem, outra, invalida)).join();
+        // Assert
+        assertEquals(2, geradas);
+        assertTrue(Files.exists(diretorio.resolve("2.thumb64.png")));
+    }
+
+    @Test
+    public void productServiceDeveGerarEApagarMiniaturas() throws IOException {
+        // Arrange
+        ProductService productService = new ProductService(new ImageStorageConfig(diretorio.resolve("BancoImagens")));
+        productService.setThumbnailService(thumbnails);
+        Product produto = new Product(7, "Hot Dog", 10.4f, imagem.toString());
+        // Act
+        productService.save(produto);
+        byte[] miniatura = productService.getThumbnail(7, 64);
+        productService.remove(7);
+        // Assert
+        assertTrue(miniatura.length > 0);
+        assertFalse(Files.exists(ThumbnailService.thumbnailPath(Path.of(produto.getImage()), 64)));
+        assertEquals(0, thumbnails.getCachedBytes());
+    }
+
+    @Test
+    public void tarefaAgendadaAntesDeInvalidarNaoDeveGravarMiniaturas() throws IOException {
+        // Arrange
+        Queue<Runnable> fila = new ArrayDeque<Runnable>();
+        ThumbnailService agendado = new ThumbnailService(new int[]{64}, 1024 * 1024, fila::add);
+        CompletableFuture<Boolean> antiga = agendado.generateAsync(imagem);
+        agendado.invalidate(imagem);
+        CompletableFuture<Boolean> nova = agendado.generateAsync(imagem);
+        Path miniatura = ThumbnailService.thumbnailPath(imagem, 64);
+        // Act
+        fila.poll().run();
+        boolean gravadaPelaAntiga = Files.exists(miniatura);
+        fila.poll().run();
+        // Assert
+        assertTrue(antiga.join());
+        assertTrue(nova.join());
+        assertFalse(gravadaPelaAntiga);
+        assertTrue(Files.exists(miniatura));
+    }
+
+    @Test
+    public void carimbosNaoDevemSobreviverAoTrabalhoConcluido() throws IOException {
+        // Arrange
+        Queue<Runnable> fila = new ArrayDeque<Runnable>();
+        ThumbnailService agendado = new ThumbnailService(new int[]{64}, 1024 * 1024, fila::add);
+        Path outra = criarImagem(diretorio.resolve("2.jpg"), 100, 100);
+        // Act
+        agendado.generateAsync(imagem);
+        int carimbosComTarefaPendente = agendado.stampCount();
+        fila.poll().run();
+        agendado.getThumbnail(outra, 64);
+        agendado.invalidate(outra);
+        // Assert
+        assertEquals(1, carimbosComTarefaPendente);
+        assertEquals(0, agendado.stampCount());
+    }
+
+    @Test
+    public void lojaPorConteudoDeveApagarMiniaturasDaImagemSubstituida() throws IOException {
+        // Arrange
+        ProductService productService = new ProductService(new ImageStorageConfig(diretorio.resolve("BancoImagens")));
+        productService.setContentStore(new ContentAddressedImageStore(diretorio.resolve("Loja")));
+        productService.setThumbnailService(thumbnails);
+        Path outra = criarImagem(diretorio.resolve("2.jpg"), 300, 300);
+        productService.save(new Product(7, "Hot Dog", 10.4f, imagem.toString()));
+        Path blobAntigo = Path.of(productService.getImagePathById(7));
+        productService.getThumbnail(7, 64);
+        // Act
+        productService.update(new Product(7, "Hot Dog", 10.4f, outra.toString()));
+        // Assert
+        assertFalse(Files.exists(blobAntigo));
+        assertFalse(Files.exists(ThumbnailService.thumbnailPath(blobAntigo, 64)));
+        assertFalse(Files.exists(ThumbnailService.thumbnailPath(blobAntigo, 256)));
+        assertTrue(Files.exists(ThumbnailService.thumbnailPath(Path.of(productService.getImagePathById(7)), 64)));
+    }
+}